@@ -0,0 +1,26 @@
+package aop;
+
+import aop.domain.User;
+import aop.repository.UserDao;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 항상 같은 user를 돌려주고 수정은 무시하는 UserDao.
+ */
+public class FixedUserDao extends UserDao {
+
+    private final User user = new User(1L, "gugu", "password", "hkkang@woowahan.com");
+
+    public FixedUserDao() {
+        super(new JdbcTemplate());
+    }
+
+    @Override
+    public User findById(final Long id) {
+        return user;
+    }
+
+    @Override
+    public void update(final User user) {
+    }
+}
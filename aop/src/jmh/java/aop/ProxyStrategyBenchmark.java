@@ -0,0 +1,145 @@
+package aop;
+
+import aop.domain.User;
+import aop.proxy.TransactionProxyGenerator;
+import aop.repository.UserDao;
+import aop.repository.UserHistoryDao;
+import aop.service.AppUserService;
+import aop.service.TransactionalAppUserService;
+import aop.service.TxUserService;
+import aop.service.UserService;
+import aop.stage0.TransactionHandler;
+import aop.stage1.TransactionAdvisor;
+import aop.stage2.AopConfig;
+import aop.timing.MethodTimerRegistry;
+import aop.timing.TimedAdvisor;
+import aop.timing.TimedTransactionManagerPostProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.framework.ProxyFactoryBean;
+import org.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 트랜잭션을 적용하는 방법마다 호출 비용, 할당량, 프록시 생성 시간을 비교한다.
+ *
+ * - direct      : 트랜잭션 없이 AppUserService 직접 호출 (기준값)
+ * - decorator   : 직접 작성한 TxUserService
+ * - jdkProxy    : JDK 동적 프록시 + TransactionHandler
+ * - advisor     : ProxyFactoryBean + TransactionAdvisor (CGLIB, frozen)
+ * - timed       : advisor에 TimedAdvisor를 더하고 트랜잭션 매니저도 시간을 재도록 감싼 것 (@Timed 비용)
+ * - autoProxy   : AopConfig의 DefaultAdvisorAutoProxyCreator
+ * - generated   : TransactionProxyGenerator가 런타임에 생성한 클래스
+ * - compileTime : 어노테이션 프로세서가 생성한 TransactionalAppUserService
+ *
+ * 트랜잭션 매니저는 실제 DataSourceTransactionManager를 사용하고, DataSource는 메모리 스텁이다.
+ * 할당량은 gc 프로파일러(-prof gc)의 gc.alloc.rate.norm으로 확인한다. (ProxyStrategyReport 참고)
+ */
+@State(Scope.Benchmark)
+public class ProxyStrategyBenchmark {
+
+    @Param({"direct", "decorator", "jdkProxy", "advisor", "timed", "autoProxy", "generated", "compileTime"})
+    private String strategy;
+
+    private PlatformTransactionManager transactionManager;
+    private UserDao userDao;
+    private UserHistoryDao userHistoryDao;
+    private TransactionAdvisor transactionAdvisor;
+    private TransactionAdvisor timedTransactionAdvisor;
+    private TimedAdvisor timedAdvisor;
+    private DefaultAdvisorAutoProxyCreator autoProxyCreator;
+    private TransactionProxyGenerator transactionProxyGenerator;
+
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        transactionManager = new DataSourceTransactionManager(new StubDataSource());
+        userDao = new FixedUserDao();
+        userHistoryDao = new NoOpUserHistoryDao();
+        transactionAdvisor = new TransactionAdvisor(transactionManager);
+        timedTransactionAdvisor = new TransactionAdvisor(TimedTransactionManagerPostProcessor.timed(transactionManager));
+        timedAdvisor = new TimedAdvisor(new MethodTimerRegistry(Duration.ofMinutes(1)));
+        transactionProxyGenerator = new TransactionProxyGenerator();
+
+        final var beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("transactionAdvisor", new AopConfig().transactionAdvisor(transactionManager));
+        autoProxyCreator = AopConfig.advisorAutoProxyCreator();
+        autoProxyCreator.setBeanFactory(beanFactory);
+
+        userService = createUserService();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public User findById() {
+        return userService.findById(1L);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public UserService changePassword() {
+        userService.changePassword(1L, "password", "gugu");
+        return userService;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public UserService createProxy() {
+        return createUserService();
+    }
+
+    private UserService createUserService() {
+        switch (strategy) {
+            case "direct":
+                return new AppUserService(userDao, userHistoryDao);
+            case "decorator":
+                return new TxUserService(transactionManager, new AppUserService(userDao, userHistoryDao));
+            case "jdkProxy":
+                return (UserService) Proxy.newProxyInstance(
+                        getClass().getClassLoader(),
+                        new Class[]{UserService.class},
+                        new TransactionHandler(new AppUserService(userDao, userHistoryDao), transactionManager));
+            case "advisor":
+                final var proxyFactoryBean = new ProxyFactoryBean();
+                proxyFactoryBean.setTarget(new AppUserService(userDao, userHistoryDao));
+                proxyFactoryBean.addAdvisor(transactionAdvisor);
+                proxyFactoryBean.setProxyTargetClass(true);
+                proxyFactoryBean.setFrozen(true);
+                return (UserService) proxyFactoryBean.getObject();
+            case "timed":
+                final var timedProxyFactoryBean = new ProxyFactoryBean();
+                timedProxyFactoryBean.setTarget(new AppUserService(userDao, userHistoryDao));
+                timedProxyFactoryBean.addAdvisor(timedAdvisor);
+                timedProxyFactoryBean.addAdvisor(timedTransactionAdvisor);
+                timedProxyFactoryBean.setProxyTargetClass(true);
+                timedProxyFactoryBean.setFrozen(true);
+                return (UserService) timedProxyFactoryBean.getObject();
+            case "autoProxy":
+                return (UserService) autoProxyCreator.postProcessAfterInitialization(
+                        new AppUserService(userDao, userHistoryDao), "userService");
+            case "generated":
+                return transactionProxyGenerator.createProxy(UserService.class,
+                        new AppUserService(userDao, userHistoryDao), transactionManager);
+            case "compileTime":
+                return new TransactionalAppUserService(transactionManager, userDao, userHistoryDao);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+}
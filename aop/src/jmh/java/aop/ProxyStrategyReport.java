@@ -0,0 +1,87 @@
+package aop;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ProxyStrategyBenchmark를 gc 프로파일러와 함께 실행하고 전략별 비교표를 마크다운으로 남긴다.
+ *
+ * ./gradlew :aop:jmhProxyStrategyReport
+ */
+public class ProxyStrategyReport {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final String[] BENCHMARKS = {"findById", "changePassword", "createProxy"};
+
+    public static void main(final String[] args) throws RunnerException, IOException {
+        final var output = Path.of(args.length > 0 ? args[0] : "build/reports/jmh/proxy-strategies.md");
+        final var options = new OptionsBuilder()
+                .include(ProxyStrategyBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .build();
+
+        final var report = toMarkdown(new Runner(options).run());
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.writeString(output, report);
+        System.out.println(report);
+    }
+
+    static String toMarkdown(final Collection<RunResult> results) {
+        final Map<String, Map<String, RunResult>> byStrategy = new LinkedHashMap<>();
+        for (final var result : results) {
+            final var params = result.getParams();
+            final var benchmark = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+            byStrategy.computeIfAbsent(params.getParam("strategy"), ignored -> new LinkedHashMap<>())
+                    .put(benchmark, result);
+        }
+
+        final var report = new StringBuilder();
+        report.append("| strategy |");
+        for (final var benchmark : BENCHMARKS) {
+            report.append(' ').append(benchmark).append(" | ").append(benchmark).append(" alloc |");
+        }
+        report.append('\n').append("|---|").append("---:|---:|".repeat(BENCHMARKS.length)).append('\n');
+
+        byStrategy.forEach((strategy, benchmarks) -> {
+            report.append("| ").append(strategy).append(" |");
+            for (final var benchmark : BENCHMARKS) {
+                final var result = benchmarks.get(benchmark);
+                if (result == null) {
+                    report.append(" - | - |");
+                    continue;
+                }
+                final var primary = result.getPrimaryResult();
+                final var allocation = allocationOf(result);
+                report.append(String.format(Locale.ROOT, " %.2f %s |", primary.getScore(), primary.getScoreUnit()));
+                report.append(allocation == null ? " - |" : String.format(Locale.ROOT, " %.0f B/op |", allocation.getScore()));
+            }
+            report.append('\n');
+        });
+        return report.toString();
+    }
+
+    // JMH 버전에 따라 보조 결과 이름 앞에 "·"가 붙는다.
+    private static Result<?> allocationOf(final RunResult result) {
+        for (final var entry : result.getSecondaryResults().entrySet()) {
+            if (entry.getKey().endsWith(ALLOCATION)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
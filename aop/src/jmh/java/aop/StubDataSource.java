@@ -0,0 +1,59 @@
+package aop;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+/**
+ * DB 없이 트랜잭션 매니저를 실행하기 위한 DataSource.
+ * 커넥션은 autoCommit, readOnly 상태만 기억하고 나머지 메서드는 아무 일도 하지 않는다.
+ */
+public class StubDataSource extends AbstractDataSource {
+
+    @Override
+    public Connection getConnection() {
+        final var state = new boolean[]{true, false};
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAutoCommit":
+                            return state[0];
+                        case "setAutoCommit":
+                            state[0] = (boolean) args[0];
+                            return null;
+                        case "isReadOnly":
+                            return state[1];
+                        case "setReadOnly":
+                            state[1] = (boolean) args[0];
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) {
+        return getConnection();
+    }
+
+    private static Object defaultValue(final Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
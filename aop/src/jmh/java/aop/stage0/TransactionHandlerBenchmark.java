@@ -0,0 +1,60 @@
+package aop.stage0;
+
+import aop.FixedUserDao;
+import aop.NoOpTransactionManager;
+import aop.domain.User;
+import aop.proxy.TransactionProxyGenerator;
+import aop.repository.UserHistoryDao;
+import aop.service.AppUserService;
+import aop.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDK 동적 프록시(TransactionHandler)와 바이트코드로 생성한 프록시(TransactionProxyGenerator)를 거칠 때
+ * 추가되는 비용을 직접 호출과 비교한다.
+ * DB와 실제 트랜잭션 비용이 섞이지 않도록 조회 결과는 고정값을 돌려주고, 트랜잭션 매니저는 아무 일도 하지 않는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionHandlerBenchmark {
+
+    private UserService direct;
+    private UserService proxy;
+    private UserService generatedProxy;
+
+    @Setup
+    public void setUp() {
+        direct = new AppUserService(new FixedUserDao(), new UserHistoryDao(new JdbcTemplate()));
+        proxy = (UserService) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class[]{UserService.class},
+                new TransactionHandler(direct, new NoOpTransactionManager()));
+        generatedProxy = new TransactionProxyGenerator().createProxy(UserService.class, direct, new NoOpTransactionManager());
+    }
+
+    @Benchmark
+    public User directCall() {
+        return direct.findById(1L);
+    }
+
+    @Benchmark
+    public User proxyCall() {
+        return proxy.findById(1L);
+    }
+
+    @Benchmark
+    public User generatedProxyCall() {
+        return generatedProxy.findById(1L);
+    }
+}
@@ -0,0 +1,132 @@
+package aop.stage1;
+
+import aop.NoOpTransactionManager;
+import aop.Transactional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionAdvisor로 만든 CGLIB 프록시의 호출 비용과 빈이 많은 컨텍스트의 시작 시간을 측정한다.
+ *
+ * frozen=true 이면 메서드별 어드바이스 체인을 프록시 생성 시점에 고정하고,
+ * @Transactional이 없는 메서드는 MethodInvocation 없이 대상 객체를 바로 호출한다.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionAdvisorBenchmark {
+
+    @Param({"true", "false"})
+    private boolean frozen;
+
+    private SampleService direct;
+    private SampleService proxy;
+
+    @Setup
+    public void setUp() {
+        direct = new SampleService();
+        final var proxyFactory = new ProxyFactory(direct);
+        proxyFactory.addAdvisor(new TransactionAdvisor(new NoOpTransactionManager()));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.setFrozen(frozen);
+        proxy = (SampleService) proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public long directCall() {
+        return direct.find(1L);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public long advisedCall() {
+        return proxy.find(1L);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public String unadvisedCall() {
+        return proxy.name();
+    }
+
+    /**
+     * 빈 300개(그중 1/3은 @Transactional 메서드를 가진 클래스)를 등록하고 컨텍스트를 시작하는 시간.
+     * 포인트컷은 빈마다 모든 메서드에 대해 호출된다.
+     */
+    @State(Scope.Thread)
+    public static class ContextState {
+
+        @Param({"300"})
+        private int beans;
+
+        private GenericApplicationContext context;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            context = new GenericApplicationContext();
+            context.registerBean(PlatformTransactionManager.class, NoOpTransactionManager::new);
+            context.registerBean(TransactionAdvisor.class, () -> new TransactionAdvisor(context.getBean(PlatformTransactionManager.class)));
+            context.registerBean(DefaultAdvisorAutoProxyCreator.class, () -> {
+                final var autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+                autoProxyCreator.setProxyTargetClass(true);
+                autoProxyCreator.setFrozen(true);
+                return autoProxyCreator;
+            });
+            for (int i = 0; i < beans; i++) {
+                final Class<?> beanClass = i % 3 == 0 ? SampleService.class : (i % 3 == 1 ? PlainRepository.class : PlainComponent.class);
+                context.registerBean("bean" + i, beanClass);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GenericApplicationContext startup(final ContextState state) {
+        state.context.refresh();
+        state.context.close();
+        return state.context;
+    }
+
+    public static class SampleService {
+
+        @Transactional
+        public long find(final long id) {
+            return id;
+        }
+
+        public String name() {
+            return "sample";
+        }
+    }
+
+    public static class PlainRepository {
+
+        public long count() {
+            return 0L;
+        }
+
+        public void save(final Object entity) {
+        }
+    }
+
+    public static class PlainComponent {
+
+        public String name() {
+            return "plain";
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package aop;
+
+import java.lang.annotation.*;
+
+/**
+ * 메서드를 호출하면 캐시에서 키를 지운다.
+ * 트랜잭션 안에서 호출하면 커밋된 뒤에 지우고, 롤백되면 지우지 않는다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheEvict {
+
+    /**
+     * 캐시 이름
+     */
+    String value();
+
+    /**
+     * 키로 사용할 인자의 위치. 비어 있으면 모든 인자로 키를 만든다.
+     * 예를 들어 changePassword(id, newPassword, createBy)에서 findById(id)의 결과를 지우려면 {0}을 지정한다.
+     */
+    int[] keyArgs() default {};
+
+    /**
+     * true 이면 키와 상관없이 캐시를 모두 비운다.
+     */
+    boolean allEntries() default false;
+}
@@ -0,0 +1,19 @@
+package aop;
+
+import java.lang.annotation.*;
+
+/**
+ * 메서드 결과를 캐시에 저장해두고 같은 인자로 다시 호출하면 대상 메서드를 호출하지 않고 저장한 결과를 돌려준다.
+ * 키는 모든 인자로 만들고, null 결과는 저장하지 않는다.
+ * 저장한 객체를 그대로 돌려주므로 호출하는 쪽에서 돌려받은 객체를 바꾸면 안 된다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Cacheable {
+
+    /**
+     * 캐시 이름
+     */
+    String value();
+}
@@ -0,0 +1,19 @@
+package aop;
+
+import java.lang.annotation.*;
+
+/**
+ * 메서드 실행 시간을 측정한다. 클래스에 붙이면 모든 public 메서드를 측정한다.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface Timed {
+
+    /**
+     * 가장 바깥 호출이 이 시간(ms)보다 오래 걸리면 안쪽 호출을 포함한 trace를 로그로 남긴다.
+     * 0보다 작으면 MethodTimerRegistry의 기본값을 사용한다.
+     */
+    long slowThresholdMillis() default -1;
+}
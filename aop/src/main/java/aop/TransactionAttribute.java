@@ -0,0 +1,86 @@
+package aop;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.List;
+
+/**
+ * @Transactional 어노테이션의 값을 한 번만 읽어서 보관하는 불변 객체.
+ * 트랜잭션 매니저에 넘길 TransactionDefinition도 미리 만들어둔다.
+ */
+public final class TransactionAttribute {
+
+    private final TransactionDefinition definition;
+    private final List<Class<? extends Throwable>> rollbackFor;
+    private final List<Class<? extends Throwable>> noRollbackFor;
+
+    private TransactionAttribute(final TransactionDefinition definition,
+                                 final List<Class<? extends Throwable>> rollbackFor,
+                                 final List<Class<? extends Throwable>> noRollbackFor) {
+        this.definition = definition;
+        this.rollbackFor = rollbackFor;
+        this.noRollbackFor = noRollbackFor;
+    }
+
+    public static TransactionAttribute of(final Transactional transactional, final String name) {
+        return of(name, transactional.propagation(), transactional.readOnly(),
+                List.of(transactional.rollbackFor()), List.of(transactional.noRollbackFor()));
+    }
+
+    /**
+     * 어노테이션 없이 속성 값으로 만든다. 컴파일 시점에 생성한 트랜잭션 클래스가 사용한다.
+     */
+    public static TransactionAttribute of(final String name,
+                                          final Propagation propagation,
+                                          final boolean readOnly,
+                                          final List<Class<? extends Throwable>> rollbackFor,
+                                          final List<Class<? extends Throwable>> noRollbackFor) {
+        final var definition = new DefaultTransactionDefinition(propagation.value());
+        definition.setName(name);
+        definition.setReadOnly(readOnly);
+        return new TransactionAttribute(definition, List.copyOf(rollbackFor), List.copyOf(noRollbackFor));
+    }
+
+    public TransactionDefinition getDefinition() {
+        return definition;
+    }
+
+    public boolean isReadOnly() {
+        return definition.isReadOnly();
+    }
+
+    /**
+     * noRollbackFor가 rollbackFor보다 우선한다.
+     */
+    public boolean rollbackOn(final Throwable e) {
+        if (matches(noRollbackFor, e)) {
+            return false;
+        }
+        if (matches(rollbackFor, e)) {
+            return true;
+        }
+        return e instanceof RuntimeException || e instanceof Error;
+    }
+
+    private static boolean matches(final List<Class<? extends Throwable>> types, final Throwable e) {
+        for (final var type : types) {
+            if (type.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionAttribute{" +
+                "name=" + definition.getName() +
+                ", propagation=" + definition.getPropagationBehavior() +
+                ", readOnly=" + definition.isReadOnly() +
+                ", rollbackFor=" + rollbackFor +
+                ", noRollbackFor=" + noRollbackFor +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package aop;
+
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * (메서드, 대상 클래스)마다 @Transactional을 한 번만 찾아서 캐싱한다.
+ * 프록시가 넘겨주는 인터페이스 메서드로 호출해도 구현 클래스 메서드의 어노테이션을 찾는다.
+ * 어노테이션이 없는 메서드도 Optional.empty()로 캐싱해서 다시 찾지 않는다.
+ */
+public class TransactionAttributeSource {
+
+    private final Map<MethodClassKey, Optional<TransactionAttribute>> cache = new ConcurrentHashMap<>();
+
+    public TransactionAttribute getTransactionAttribute(final Method method, final Class<?> targetClass) {
+        return cache.computeIfAbsent(new MethodClassKey(method, targetClass), this::findTransactionAttribute)
+                .orElse(null);
+    }
+
+    private Optional<TransactionAttribute> findTransactionAttribute(final MethodClassKey key) {
+        final var specificMethod = key.targetClass == null
+                ? key.method
+                : ClassUtils.getMostSpecificMethod(key.method, key.targetClass);
+        var transactional = specificMethod.getAnnotation(Transactional.class);
+        if (transactional == null) {
+            transactional = key.method.getAnnotation(Transactional.class);
+        }
+        if (transactional == null) {
+            return Optional.empty();
+        }
+        final var name = ClassUtils.getQualifiedMethodName(specificMethod, key.targetClass);
+        return Optional.of(TransactionAttribute.of(transactional, name));
+    }
+
+    private static final class MethodClassKey {
+
+        private final Method method;
+        private final Class<?> targetClass;
+
+        private MethodClassKey(final Method method, final Class<?> targetClass) {
+            this.method = method;
+            this.targetClass = targetClass;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MethodClassKey)) return false;
+            final var that = (MethodClassKey) o;
+            return method.equals(that.method) && targetClass == that.targetClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, targetClass);
+        }
+    }
+}
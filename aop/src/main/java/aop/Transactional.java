@@ -1,5 +1,7 @@
 package aop;
 
+import org.springframework.transaction.annotation.Propagation;
+
 import java.lang.annotation.*;
 
 @Target({ElementType.METHOD})
@@ -7,4 +9,21 @@ import java.lang.annotation.*;
 @Inherited
 @Documented
 public @interface Transactional {
+
+    Propagation propagation() default Propagation.REQUIRED;
+
+    /**
+     * 기본 전파 속성(REQUIRED)에서는 읽기 전용 물리 트랜잭션을 시작하거나 바깥 트랜잭션에 참여한다.
+     * propagation = SUPPORTS와 함께 쓰면 진행 중인 트랜잭션이 없을 때 트랜잭션을 시작하지 않고
+     * 읽기 전용 커넥션으로 autocommit 상태에서 실행한다. (setAutoCommit, commit 왕복이 없다)
+     * 이때는 쿼리마다 따로 커밋되므로 여러 쿼리가 같은 스냅샷을 봐야 하는 메서드에는 쓰지 않는다.
+     */
+    boolean readOnly() default false;
+
+    /**
+     * 지정하지 않으면 RuntimeException, Error가 발생했을 때만 롤백한다.
+     */
+    Class<? extends Throwable>[] rollbackFor() default {};
+
+    Class<? extends Throwable>[] noRollbackFor() default {};
 }
@@ -0,0 +1,212 @@
+package aop.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 크기와 TTL이 정해진 LRU 캐시.
+ *
+ * 키를 해시로 나눈 세그먼트마다 접근 순서 LinkedHashMap과 락을 따로 두어서 서로 다른 세그먼트는 동시에 접근할 수 있다.
+ * 최대 크기도 세그먼트마다 나눠서 지키므로, 가장 오래전에 사용한 항목은 캐시 전체가 아니라 세그먼트 안에서 고른다.
+ * 만료된 항목은 조회할 때 지우고, 조회되지 않으면 LRU 순서에 따라 밀려난다.
+ *
+ * 세그먼트마다 evict, clear 할 때 증가하는 stamp를 둔다.
+ * 캐시에 없어서 원본을 조회할 때 조회 전에 stamp를 읽어두고 putIfUnchanged로 저장하면,
+ * 조회하는 동안 같은 세그먼트에서 지운 적이 있을 때 저장하지 않는다.
+ * 커밋 직전에 읽은 값이 커밋 후 evict보다 늦게 저장되어서 다시 오래된 값이 남는 경우를 막는다.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 64;
+
+    private final String name;
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedCache(final String name, final int maximumSize, final Duration ttl) {
+        this(name, maximumSize, ttl, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(final String name, final int maximumSize, final Duration ttl, final LongSupplier nanoTime) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+
+        final var segmentCount = segmentCount(maximumSize);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            final var segmentCapacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(segmentCapacity, evictions);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    // 세그먼트 수는 2의 거듭제곱으로, 세그먼트마다 항목이 최소 16개는 들어가도록 정한다.
+    private static int segmentCount(final int maximumSize) {
+        final var wanted = Math.min(MAX_SEGMENTS, Math.max(1, maximumSize / 16));
+        return Integer.highestOneBit(wanted);
+    }
+
+    public V get(final K key) {
+        final var segment = segmentFor(key);
+        synchronized (segment) {
+            final var entry = segment.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.expiresAt - nanoTime.getAsLong() <= 0) {
+                segment.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    /**
+     * 원본을 조회하기 전에 호출해서 putIfUnchanged에 넘긴다.
+     */
+    public long stamp(final K key) {
+        final var segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.stamp;
+        }
+    }
+
+    /**
+     * stamp를 읽은 뒤로 같은 세그먼트에서 지운 적이 없을 때만 저장한다.
+     */
+    public boolean putIfUnchanged(final K key, final V value, final long stamp) {
+        final var segment = segmentFor(key);
+        synchronized (segment) {
+            if (segment.stamp != stamp) {
+                return false;
+            }
+            segment.put(key, new Entry<>(value, nanoTime.getAsLong() + ttlNanos));
+            return true;
+        }
+    }
+
+    public void put(final K key, final V value) {
+        final var segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, nanoTime.getAsLong() + ttlNanos));
+        }
+    }
+
+    public void evict(final K key) {
+        final var segment = segmentFor(key);
+        synchronized (segment) {
+            segment.stamp++;
+            segment.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (final var segment : segments) {
+            synchronized (segment) {
+                segment.stamp++;
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        var size = 0;
+        for (final var segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(final K key) {
+        final var hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        final var hits = this.hits.sum();
+        final var total = hits + misses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * 크기를 넘어서 밀려난 항목 수. evict, clear로 지운 항목은 세지 않는다.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(final V value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final transient LongAdder evictions;
+        private long stamp;
+
+        private Segment(final int capacity, final LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package aop.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @Cacheable 메서드는 캐시에 있으면 대상 메서드를 호출하지 않고, 없으면 호출한 결과를 저장한다.
+ * @CacheEvict 메서드는 호출한 뒤에 키를 지운다. 예외가 발생해도 일부가 커밋되었을 수 있으므로 지운다.
+ *
+ * 트랜잭션 어드바이스보다 바깥에서 실행되므로 캐시에 있으면 트랜잭션을 시작하지 않고,
+ * 메서드의 트랜잭션은 evict 하기 전에 이미 커밋되어 있다.
+ * 바깥 트랜잭션 안에서 호출되면 아직 커밋 전이므로 아래처럼 처리한다.
+ * - evict는 미뤄뒀다가 커밋된 뒤에 실행하고, 롤백되면 버린다. 캐시에 있는 값은 여전히 DB와 같다.
+ *   물리 트랜잭션 없이 동기화만 켜진 범위(SUPPORTS 등)에서는 변경이 이미 커밋되었으므로 바로 지운다.
+ * - 같은 트랜잭션에서 evict를 미뤄둔 키는 캐시를 읽지도, 채우지도 않는다.
+ * - 쓰기 트랜잭션 안에서 조회한 결과는 커밋되지 않은 값일 수 있으므로 캐시에 저장하지 않는다.
+ */
+public class CacheAdvice implements MethodInterceptor {
+
+    private final CacheOperationSource cacheOperationSource;
+
+    public CacheAdvice(final CacheOperationSource cacheOperationSource) {
+        this.cacheOperationSource = cacheOperationSource;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final var targetClass = invocation.getThis() == null ? null : AopUtils.getTargetClass(invocation.getThis());
+        final var operation = cacheOperationSource.getCacheOperation(invocation.getMethod(), targetClass);
+        if (operation == null) {
+            return invocation.proceed();
+        }
+        if (operation.isEvict()) {
+            return invokeEvict(invocation, operation);
+        }
+        return invokeCacheable(invocation, operation);
+    }
+
+    private static Object invokeCacheable(final MethodInvocation invocation, final CacheOperation operation) throws Throwable {
+        final var cache = operation.getCache();
+        final var key = operation.generateKey(invocation.getArguments());
+        final var pendingEvictions = PendingEvictions.current(cache);
+        if (pendingEvictions != null && pendingEvictions.contains(key)) {
+            return invocation.proceed();
+        }
+
+        final var cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final var stamp = cache.stamp(key);
+        final var result = invocation.proceed();
+        if (result != null && !isReadWriteTransactionActive()) {
+            cache.putIfUnchanged(key, result, stamp);
+        }
+        return result;
+    }
+
+    private static Object invokeEvict(final MethodInvocation invocation, final CacheOperation operation) throws Throwable {
+        final var key = operation.isAllEntries() ? null : operation.generateKey(invocation.getArguments());
+        try {
+            return invocation.proceed();
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()
+                    && TransactionSynchronizationManager.isActualTransactionActive()) {
+                PendingEvictions.obtain(operation.getCache()).add(key);
+            } else if (key == null) {
+                operation.getCache().clear();
+            } else {
+                operation.getCache().evict(key);
+            }
+        }
+    }
+
+    private static boolean isReadWriteTransactionActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 트랜잭션이 커밋된 뒤에 지울 키. 캐시마다 트랜잭션 리소스로 등록한다.
+     * REQUIRES_NEW로 바깥 트랜잭션이 일시 중단되면 함께 분리해서 안쪽 트랜잭션과 섞이지 않게 한다.
+     */
+    private static class PendingEvictions implements TransactionSynchronization {
+
+        private final BoundedCache<Object, Object> cache;
+        private final Set<Object> keys = new HashSet<>();
+        private boolean allEntries;
+
+        private PendingEvictions(final BoundedCache<Object, Object> cache) {
+            this.cache = cache;
+        }
+
+        static PendingEvictions current(final BoundedCache<Object, Object> cache) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return null;
+            }
+            return (PendingEvictions) TransactionSynchronizationManager.getResource(cache);
+        }
+
+        static PendingEvictions obtain(final BoundedCache<Object, Object> cache) {
+            final var pendingEvictions = current(cache);
+            if (pendingEvictions != null) {
+                return pendingEvictions;
+            }
+            final var created = new PendingEvictions(cache);
+            TransactionSynchronizationManager.bindResource(cache, created);
+            TransactionSynchronizationManager.registerSynchronization(created);
+            return created;
+        }
+
+        // key가 null이면 캐시 전체를 지운다.
+        void add(final Object key) {
+            if (key == null) {
+                allEntries = true;
+                return;
+            }
+            keys.add(key);
+        }
+
+        boolean contains(final Object key) {
+            return allEntries || keys.contains(key);
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(cache);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(cache, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (allEntries) {
+                cache.clear();
+                return;
+            }
+            keys.forEach(cache::evict);
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(cache);
+        }
+    }
+}
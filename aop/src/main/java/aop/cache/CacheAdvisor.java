@@ -0,0 +1,54 @@
+package aop.cache;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+
+/**
+ * @Cacheable, @CacheEvict 메서드에 CacheAdvice를 적용한다.
+ * 캐시에 있으면 트랜잭션을 시작하지 않도록 트랜잭션 어드바이스보다 바깥에서, 실행 시간은 캐시 적중도 포함해서 측정하도록
+ * TimedAdvisor보다 안쪽에서 실행된다.
+ */
+public class CacheAdvisor implements PointcutAdvisor, Ordered {
+
+    private final Pointcut pointcut;
+    private final CacheAdvice advice;
+
+    public CacheAdvisor(final CacheRegistry registry) {
+        this(new CacheOperationSource(registry));
+    }
+
+    public CacheAdvisor(final CacheOperationSource cacheOperationSource) {
+        this.pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(final Method method, final Class<?> targetClass) {
+                return cacheOperationSource.getCacheOperation(method, targetClass) != null;
+            }
+        };
+        this.advice = new CacheAdvice(cacheOperationSource);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    @Override
+    public boolean isPerInstance() {
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
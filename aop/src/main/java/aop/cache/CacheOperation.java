@@ -0,0 +1,60 @@
+package aop.cache;
+
+import aop.CacheEvict;
+import aop.Cacheable;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+
+/**
+ * 메서드에 붙은 @Cacheable 또는 @CacheEvict를 해석한 결과. 사용할 캐시도 미리 찾아둔다.
+ */
+public final class CacheOperation {
+
+    private final BoundedCache<Object, Object> cache;
+    private final boolean evict;
+    private final int[] keyArgs;
+    private final boolean allEntries;
+
+    private CacheOperation(final BoundedCache<Object, Object> cache, final boolean evict,
+                           final int[] keyArgs, final boolean allEntries) {
+        this.cache = cache;
+        this.evict = evict;
+        this.keyArgs = keyArgs;
+        this.allEntries = allEntries;
+    }
+
+    public static CacheOperation of(final Cacheable cacheable, final CacheRegistry registry) {
+        return new CacheOperation(registry.getCache(cacheable.value()), false, new int[0], false);
+    }
+
+    public static CacheOperation of(final CacheEvict cacheEvict, final CacheRegistry registry) {
+        return new CacheOperation(registry.getCache(cacheEvict.value()), true,
+                cacheEvict.keyArgs().clone(), cacheEvict.allEntries());
+    }
+
+    /**
+     * 인자가 하나면 인자 자체를, 여러 개면 인자를 묶은 SimpleKey를 키로 사용한다.
+     * 그래서 findById(id)와 @CacheEvict(keyArgs = 0)을 붙인 changePassword(id, ...)는 같은 키를 만든다.
+     */
+    public Object generateKey(final Object[] arguments) {
+        if (keyArgs.length == 0) {
+            return SimpleKeyGenerator.generateKey(arguments);
+        }
+        final var selected = new Object[keyArgs.length];
+        for (int i = 0; i < keyArgs.length; i++) {
+            selected[i] = arguments[keyArgs[i]];
+        }
+        return SimpleKeyGenerator.generateKey(selected);
+    }
+
+    public BoundedCache<Object, Object> getCache() {
+        return cache;
+    }
+
+    public boolean isEvict() {
+        return evict;
+    }
+
+    public boolean isAllEntries() {
+        return allEntries;
+    }
+}
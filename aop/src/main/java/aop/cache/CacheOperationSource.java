@@ -0,0 +1,62 @@
+package aop.cache;
+
+import aop.CacheEvict;
+import aop.Cacheable;
+import org.springframework.core.MethodClassKey;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * (메서드, 대상 클래스)마다 @Cacheable, @CacheEvict를 한 번만 찾아서 캐싱한다.
+ * 한 메서드에 둘 다 붙이면 어느 쪽을 적용할지 알 수 없으므로 예외가 발생한다.
+ */
+public class CacheOperationSource {
+
+    private final CacheRegistry registry;
+    private final Map<MethodClassKey, Optional<CacheOperation>> cache = new ConcurrentHashMap<>();
+
+    public CacheOperationSource(final CacheRegistry registry) {
+        this.registry = registry;
+    }
+
+    public CacheOperation getCacheOperation(final Method method, final Class<?> targetClass) {
+        return cache.computeIfAbsent(new MethodClassKey(method, targetClass), ignored -> findCacheOperation(method, targetClass))
+                .orElse(null);
+    }
+
+    private Optional<CacheOperation> findCacheOperation(final Method method, final Class<?> targetClass) {
+        final var specificMethod = targetClass == null ? method : ClassUtils.getMostSpecificMethod(method, targetClass);
+        final var cacheable = findAnnotation(specificMethod, method, Cacheable.class);
+        final var cacheEvict = findAnnotation(specificMethod, method, CacheEvict.class);
+        if (cacheable != null && cacheEvict != null) {
+            throw new IllegalStateException("@Cacheable and @CacheEvict cannot be used together: " + specificMethod);
+        }
+        if (cacheable != null) {
+            return Optional.of(CacheOperation.of(cacheable, registry));
+        }
+        if (cacheEvict != null) {
+            validateKeyArgs(cacheEvict, specificMethod);
+            return Optional.of(CacheOperation.of(cacheEvict, registry));
+        }
+        return Optional.empty();
+    }
+
+    private static <A extends Annotation> A findAnnotation(final Method specificMethod, final Method method,
+                                                            final Class<A> annotationType) {
+        final var annotation = specificMethod.getAnnotation(annotationType);
+        return annotation == null ? method.getAnnotation(annotationType) : annotation;
+    }
+
+    private static void validateKeyArgs(final CacheEvict cacheEvict, final Method method) {
+        for (final var index : cacheEvict.keyArgs()) {
+            if (index < 0 || index >= method.getParameterCount()) {
+                throw new IllegalStateException("Invalid @CacheEvict keyArgs " + index + ": " + method);
+            }
+        }
+    }
+}
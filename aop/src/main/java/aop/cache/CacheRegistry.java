@@ -0,0 +1,30 @@
+package aop.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 캐시 이름마다 BoundedCache를 하나씩 만들어 보관한다. 모든 캐시는 같은 최대 크기와 TTL을 사용한다.
+ */
+public class CacheRegistry {
+
+    private final int maximumSize;
+    private final Duration ttl;
+    private final Map<String, BoundedCache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    public CacheRegistry(final int maximumSize, final Duration ttl) {
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+    }
+
+    public BoundedCache<Object, Object> getCache(final String name) {
+        return caches.computeIfAbsent(name, ignored -> new BoundedCache<>(name, maximumSize, ttl));
+    }
+
+    public Collection<BoundedCache<Object, Object>> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+}
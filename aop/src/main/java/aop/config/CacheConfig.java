@@ -0,0 +1,44 @@
+package aop.config;
+
+import aop.cache.CacheAdvisor;
+import aop.cache.CacheRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.time.Duration;
+
+/**
+ * @Cacheable, @CacheEvict를 적용한다. aop.cache.enabled=false 로 끌 수 있다.
+ * CacheAdvisor는 어드바이저 자동 프록시 생성기(AopConfig)가 적용한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "aop.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+
+    @Bean
+    public CacheRegistry cacheRegistry(@Value("${aop.cache.maximum-size:10000}") final int maximumSize,
+                                       @Value("${aop.cache.ttl:10m}") final Duration ttl) {
+        return new CacheRegistry(maximumSize, ttl);
+    }
+
+    @Bean
+    public CacheAdvisor cacheAdvisor(final CacheRegistry cacheRegistry) {
+        return new CacheAdvisor(cacheRegistry);
+    }
+
+    @Bean
+    public ApplicationListener<ContextClosedEvent> cacheStatisticsReporter(final CacheRegistry cacheRegistry) {
+        return event -> cacheRegistry.getCaches().forEach(cache -> log.info(
+                "cache {} : size={}, hits={}, misses={}, hitRate={}, evictions={}, expirations={}",
+                cache.getName(), cache.size(), cache.getHits(), cache.getMisses(),
+                String.format("%.2f", cache.getHitRate()), cache.getEvictions(), cache.getExpirations()));
+    }
+}
@@ -1,5 +1,6 @@
 package aop.config;
 
+import aop.datasource.ReadOnlyConnectionDataSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
@@ -10,11 +11,12 @@ import javax.sql.DataSource;
 @Configuration
 public class DataSourceConfig {
 
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     public DataSource dataSource() {
-        return new EmbeddedDatabaseBuilder()
+        final var embeddedDatabase = new EmbeddedDatabaseBuilder()
                 .setType(EmbeddedDatabaseType.H2)
                 .addScript("classpath:schema.sql")
                 .build();
+        return new ReadOnlyConnectionDataSource(embeddedDatabase);
     }
 }
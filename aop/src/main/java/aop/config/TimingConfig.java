@@ -0,0 +1,49 @@
+package aop.config;
+
+import aop.timing.MethodTimerRegistry;
+import aop.timing.TimedAdvisor;
+import aop.timing.TimedTransactionManagerPostProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.time.Duration;
+
+/**
+ * @Timed 메서드의 실행 시간을 측정한다. aop.timing.enabled=false 로 끌 수 있다.
+ * TimedAdvisor는 어드바이저 자동 프록시 생성기(AopConfig)가 적용하고,
+ * aop.timing.transaction-manager=true 이면 트랜잭션 매니저를 감싸서 트랜잭션 시작, 커밋 시간을 대상 메서드 시간과 나눠서 기록한다.
+ * 애플리케이션이 종료될 때 메서드별 통계를 로그로 출력한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "aop.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TimingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingConfig.class);
+
+    @Bean
+    public MethodTimerRegistry methodTimerRegistry(@Value("${aop.timing.slow-threshold:100ms}") final Duration slowThreshold) {
+        return new MethodTimerRegistry(slowThreshold);
+    }
+
+    @Bean
+    public TimedAdvisor timedAdvisor(final MethodTimerRegistry methodTimerRegistry) {
+        return new TimedAdvisor(methodTimerRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "aop.timing", name = "transaction-manager", havingValue = "true")
+    public static TimedTransactionManagerPostProcessor timedTransactionManagerPostProcessor() {
+        return new TimedTransactionManagerPostProcessor();
+    }
+
+    @Bean
+    public ApplicationListener<ContextClosedEvent> methodTimerReporter(final MethodTimerRegistry methodTimerRegistry) {
+        return event -> log.info("\n{}", methodTimerRegistry.report());
+    }
+}
@@ -0,0 +1,38 @@
+package aop.config;
+
+import aop.repository.OutboxUserHistoryDao;
+import aop.repository.UserHistoryDao;
+import aop.repository.UserHistoryOutboxRelay;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+/**
+ * user-history.outbox.enabled=true 이면 이력을 outbox에 기록하고 백그라운드에서 user_history로 옮긴다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "user-history.outbox", name = "enabled", havingValue = "true")
+public class UserHistoryOutboxConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public UserHistoryOutboxRelay userHistoryOutboxRelay(
+            final JdbcTemplate jdbcTemplate,
+            final PlatformTransactionManager transactionManager,
+            @Value("${user-history.outbox.batch-size:500}") final int batchSize,
+            @Value("${user-history.outbox.poll-interval:200ms}") final Duration pollInterval,
+            @Value("${user-history.outbox.max-pending:100000}") final long maxPending) {
+        return new UserHistoryOutboxRelay(jdbcTemplate, transactionManager, batchSize, pollInterval, maxPending);
+    }
+
+    @Bean
+    @Primary
+    public UserHistoryDao outboxUserHistoryDao(final JdbcTemplate jdbcTemplate, final UserHistoryOutboxRelay relay) {
+        return new OutboxUserHistoryDao(jdbcTemplate, relay);
+    }
+}
@@ -0,0 +1,114 @@
+package aop.datasource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 물리 트랜잭션 없이 실행되는 읽기 전용 범위(@Transactional(readOnly = true))에서 커넥션을 얻으면
+ * Connection.setReadOnly(true)를 적용하고, 커넥션을 닫을 때 원래 상태로 되돌린다.
+ *
+ * 물리 트랜잭션이 있으면 트랜잭션 매니저가 읽기 전용 설정과 복원을 담당하므로 그대로 넘긴다.
+ * 상태를 바꾸지 않은 커넥션은 프록시로 감싸지 않는다.
+ */
+public class ReadOnlyConnectionDataSource extends DelegatingDataSource {
+
+    public ReadOnlyConnectionDataSource(final DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return prepare(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return prepare(super.getConnection(username, password));
+    }
+
+    /**
+     * 감싼 DataSource가 EmbeddedDatabase면 종료한다. 감싸면서 가려진 종료 메서드를 빈의 destroyMethod로 쓰기 위해 둔다.
+     */
+    public void shutdown() {
+        final var targetDataSource = getTargetDataSource();
+        if (targetDataSource instanceof EmbeddedDatabase) {
+            ((EmbeddedDatabase) targetDataSource).shutdown();
+        }
+    }
+
+    private static Connection prepare(final Connection connection) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || TransactionSynchronizationManager.isActualTransactionActive()
+                || connection.isReadOnly()) {
+            return connection;
+        }
+        try {
+            connection.setReadOnly(true);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionProxy.class.getClassLoader(),
+                new Class[]{ConnectionProxy.class},
+                new ReadOnlyResettingHandler(connection));
+    }
+
+    private static class ReadOnlyResettingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private boolean readOnly = true;
+
+        ReadOnlyResettingHandler(final Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "isReadOnly":
+                    return readOnly;
+                case "setReadOnly":
+                    target.setReadOnly((boolean) args[0]);
+                    readOnly = (boolean) args[0];
+                    return null;
+                case "close":
+                    resetAndClose();
+                    return null;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+
+        private void resetAndClose() throws SQLException {
+            // 사용하는 쪽에서 이미 되돌렸으면 드라이버에 다시 요청하지 않는다.
+            try {
+                if (readOnly && !target.isClosed()) {
+                    target.setReadOnly(false);
+                }
+            } finally {
+                target.close();
+            }
+        }
+    }
+}
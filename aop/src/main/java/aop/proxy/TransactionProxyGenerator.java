@@ -0,0 +1,361 @@
+package aop.proxy;
+
+import aop.TransactionAttribute;
+import aop.TransactionAttributeSource;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 인터페이스 구현 클래스를 바이트코드로 직접 만들어서 트랜잭션 프록시를 생성한다.
+ *
+ * 생성되는 클래스는 아래 코드를 컴파일한 것과 같다.
+ * 리플렉션, 인자 배열, MethodInvocation 없이 대상 객체의 메서드를 바로 호출한다.
+ *
+ * <pre>
+ * public User findById(long id) {              // @Transactional 메서드
+ *     TransactionAttribute attribute = attributes[0];
+ *     TransactionStatus status = transactionManager.getTransaction(attribute.getDefinition());
+ *     User result;
+ *     try {
+ *         result = target.findById(id);
+ *     } catch (Throwable e) {
+ *         try {
+ *             if (attribute.rollbackOn(e)) transactionManager.rollback(status);
+ *             else transactionManager.commit(status);
+ *         } catch (Throwable completionFailure) {   // 롤백, 커밋이 실패해도 대상 메서드의 예외를 던진다.
+ *             e.addSuppressed(completionFailure);
+ *         }
+ *         throw e;
+ *     }
+ *     transactionManager.commit(status);
+ *     return result;
+ * }
+ *
+ * public void insert(User user) {              // @Transactional이 없는 메서드
+ *     target.insert(user);
+ * }
+ * </pre>
+ *
+ * 프록시 클래스는 (인터페이스, 대상 클래스)마다 한 번만 만든다.
+ * equals, hashCode, toString은 대상 객체에 위임하지 않는다.
+ */
+public class TransactionProxyGenerator {
+
+    private static final String TARGET = "target";
+    private static final String TRANSACTION_MANAGER = "transactionManager";
+    private static final String ATTRIBUTES = "attributes";
+
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final String THROWABLE = Type.getInternalName(Throwable.class);
+    private static final String ADD_SUPPRESSED = "(" + Type.getDescriptor(Throwable.class) + ")V";
+    private static final String ATTRIBUTE = Type.getInternalName(TransactionAttribute.class);
+    private static final String ATTRIBUTE_ARRAY = Type.getDescriptor(TransactionAttribute[].class);
+    private static final String MANAGER = Type.getInternalName(PlatformTransactionManager.class);
+    private static final String MANAGER_DESCRIPTOR = Type.getDescriptor(PlatformTransactionManager.class);
+    private static final String STATUS_DESCRIPTOR = Type.getDescriptor(TransactionStatus.class);
+    private static final String GET_DEFINITION = Type.getMethodDescriptor(Type.getType(TransactionDefinition.class));
+    private static final String GET_TRANSACTION = Type.getMethodDescriptor(Type.getType(TransactionStatus.class), Type.getType(TransactionDefinition.class));
+    private static final String COMPLETE = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(TransactionStatus.class));
+    private static final String ROLLBACK_ON = Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(Throwable.class));
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final TransactionAttributeSource transactionAttributeSource;
+    private final Map<ProxyKey, ProxyClass> proxyClasses = new ConcurrentHashMap<>();
+
+    public TransactionProxyGenerator() {
+        this(new TransactionAttributeSource());
+    }
+
+    public TransactionProxyGenerator(final TransactionAttributeSource transactionAttributeSource) {
+        this.transactionAttributeSource = transactionAttributeSource;
+    }
+
+    public <T> T createProxy(final Class<T> interfaceType, final T target, final PlatformTransactionManager transactionManager) {
+        if (!interfaceType.isInterface()) {
+            throw new IllegalArgumentException(interfaceType.getName() + " is not an interface");
+        }
+        final var proxyClass = proxyClasses.computeIfAbsent(
+                new ProxyKey(interfaceType, target.getClass()),
+                key -> generate(key.interfaceType, key.targetClass));
+        try {
+            return interfaceType.cast(proxyClass.constructor.invoke(target, transactionManager, proxyClass.attributes));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create proxy for " + interfaceType.getName(), e);
+        }
+    }
+
+    private ProxyClass generate(final Class<?> interfaceType, final Class<?> targetClass) {
+        final var methods = collectMethods(interfaceType);
+        final var attributes = new ArrayList<TransactionAttribute>();
+        final var className = interfaceType.getName() + "$$TransactionProxy$" + SEQUENCE.incrementAndGet();
+        final var internalName = className.replace('.', '/');
+        final var interfaceName = Type.getInternalName(interfaceType);
+        final var targetDescriptor = Type.getDescriptor(interfaceType);
+
+        final var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+            // 생성하는 코드에는 서로 다른 참조 타입이 합쳐지는 분기가 없다.
+            @Override
+            protected String getCommonSuperClass(final String type1, final String type2) {
+                return OBJECT;
+            }
+        };
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+                internalName, null, OBJECT, new String[]{interfaceName});
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, TARGET, targetDescriptor, null, null).visitEnd();
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, TRANSACTION_MANAGER, MANAGER_DESCRIPTOR, null, null).visitEnd();
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, ATTRIBUTES, ATTRIBUTE_ARRAY, null, null).visitEnd();
+        generateConstructor(writer, internalName, targetDescriptor);
+
+        for (final var method : methods) {
+            final var attribute = transactionAttributeSource.getTransactionAttribute(method, targetClass);
+            if (attribute == null) {
+                generateDelegate(writer, internalName, interfaceName, targetDescriptor, method);
+            } else {
+                generateTransactional(writer, internalName, interfaceName, targetDescriptor, method, attributes.size());
+                attributes.add(attribute);
+            }
+        }
+        writer.visitEnd();
+
+        final var loader = new ProxyClassLoader(interfaceType.getClassLoader());
+        final var proxyClass = loader.define(className, writer.toByteArray());
+        try {
+            final var constructor = MethodHandles.publicLookup()
+                    .findConstructor(proxyClass, MethodType.methodType(void.class, interfaceType, PlatformTransactionManager.class, TransactionAttribute[].class))
+                    .asType(MethodType.methodType(Object.class, Object.class, PlatformTransactionManager.class, TransactionAttribute[].class));
+            return new ProxyClass(constructor, attributes.toArray(new TransactionAttribute[0]));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot create proxy for " + interfaceType.getName(), e);
+        }
+    }
+
+    // 여러 상위 인터페이스에 같은 시그니처의 메서드가 있으면 한 번만 구현한다.
+    private static List<Method> collectMethods(final Class<?> interfaceType) {
+        final var methods = new LinkedHashMap<String, Method>();
+        for (final var method : interfaceType.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            methods.putIfAbsent(method.getName() + Type.getMethodDescriptor(method), method);
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+    private static void generateConstructor(final ClassWriter writer, final String internalName, final String targetDescriptor) {
+        final var descriptor = "(" + targetDescriptor + MANAGER_DESCRIPTOR + ATTRIBUTE_ARRAY + ")V";
+        final var mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", descriptor, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, TARGET, targetDescriptor);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, TRANSACTION_MANAGER, MANAGER_DESCRIPTOR);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, ATTRIBUTES, ATTRIBUTE_ARRAY);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void generateDelegate(final ClassWriter writer, final String internalName, final String interfaceName,
+                                         final String targetDescriptor, final Method method) {
+        final var mv = visitMethod(writer, method);
+        mv.visitCode();
+        invokeTarget(mv, internalName, interfaceName, targetDescriptor, method);
+        mv.visitInsn(Type.getReturnType(method).getOpcode(Opcodes.IRETURN));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void generateTransactional(final ClassWriter writer, final String internalName, final String interfaceName,
+                                              final String targetDescriptor, final Method method, final int attributeIndex) {
+        final var returnType = Type.getReturnType(method);
+        final var attributeLocal = Type.getArgumentsAndReturnSizes(Type.getMethodDescriptor(method)) >> 2;
+        final var statusLocal = attributeLocal + 1;
+        final var resultLocal = statusLocal + 1;
+        final var exceptionLocal = resultLocal + Math.max(returnType.getSize(), 1);
+        final var completionFailureLocal = exceptionLocal + 1;
+
+        final var mv = visitMethod(writer, method);
+        final var tryStart = new Label();
+        final var tryEnd = new Label();
+        final var handler = new Label();
+        final var completionStart = new Label();
+        final var completionEnd = new Label();
+        final var completionHandler = new Label();
+        final var commitOnThrow = new Label();
+        final var rethrow = new Label();
+        mv.visitCode();
+        mv.visitTryCatchBlock(tryStart, tryEnd, handler, THROWABLE);
+        mv.visitTryCatchBlock(completionStart, completionEnd, completionHandler, THROWABLE);
+
+        // TransactionAttribute attribute = attributes[i];
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, ATTRIBUTES, ATTRIBUTE_ARRAY);
+        pushInt(mv, attributeIndex);
+        mv.visitInsn(Opcodes.AALOAD);
+        mv.visitVarInsn(Opcodes.ASTORE, attributeLocal);
+
+        // TransactionStatus status = transactionManager.getTransaction(attribute.getDefinition());
+        loadTransactionManager(mv, internalName);
+        mv.visitVarInsn(Opcodes.ALOAD, attributeLocal);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, ATTRIBUTE, "getDefinition", GET_DEFINITION, false);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, MANAGER, "getTransaction", GET_TRANSACTION, true);
+        mv.visitVarInsn(Opcodes.ASTORE, statusLocal);
+
+        // result = target.method(args);
+        mv.visitLabel(tryStart);
+        invokeTarget(mv, internalName, interfaceName, targetDescriptor, method);
+        if (returnType.getSort() != Type.VOID) {
+            mv.visitVarInsn(returnType.getOpcode(Opcodes.ISTORE), resultLocal);
+        }
+        mv.visitLabel(tryEnd);
+
+        // transactionManager.commit(status); return result;
+        completeTransaction(mv, internalName, statusLocal, "commit");
+        if (returnType.getSort() != Type.VOID) {
+            mv.visitVarInsn(returnType.getOpcode(Opcodes.ILOAD), resultLocal);
+        }
+        mv.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+
+        // catch (Throwable e) { try { rollback or commit; } catch (Throwable f) { e.addSuppressed(f); } throw e; }
+        mv.visitLabel(handler);
+        mv.visitVarInsn(Opcodes.ASTORE, exceptionLocal);
+        mv.visitLabel(completionStart);
+        mv.visitVarInsn(Opcodes.ALOAD, attributeLocal);
+        mv.visitVarInsn(Opcodes.ALOAD, exceptionLocal);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, ATTRIBUTE, "rollbackOn", ROLLBACK_ON, false);
+        mv.visitJumpInsn(Opcodes.IFEQ, commitOnThrow);
+        completeTransaction(mv, internalName, statusLocal, "rollback");
+        mv.visitJumpInsn(Opcodes.GOTO, rethrow);
+        mv.visitLabel(commitOnThrow);
+        completeTransaction(mv, internalName, statusLocal, "commit");
+        mv.visitLabel(completionEnd);
+        mv.visitJumpInsn(Opcodes.GOTO, rethrow);
+        mv.visitLabel(completionHandler);
+        mv.visitVarInsn(Opcodes.ASTORE, completionFailureLocal);
+        mv.visitVarInsn(Opcodes.ALOAD, exceptionLocal);
+        mv.visitVarInsn(Opcodes.ALOAD, completionFailureLocal);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, THROWABLE, "addSuppressed", ADD_SUPPRESSED, false);
+        mv.visitLabel(rethrow);
+        mv.visitVarInsn(Opcodes.ALOAD, exceptionLocal);
+        mv.visitInsn(Opcodes.ATHROW);
+
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static MethodVisitor visitMethod(final ClassWriter writer, final Method method) {
+        final var exceptions = new String[method.getExceptionTypes().length];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptions[i] = Type.getInternalName(method.getExceptionTypes()[i]);
+        }
+        return writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, method.getName(),
+                Type.getMethodDescriptor(method), null, exceptions);
+    }
+
+    private static void invokeTarget(final MethodVisitor mv, final String internalName, final String interfaceName,
+                                     final String targetDescriptor, final Method method) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, TARGET, targetDescriptor);
+        var local = 1;
+        for (final var argumentType : Type.getArgumentTypes(method)) {
+            mv.visitVarInsn(argumentType.getOpcode(Opcodes.ILOAD), local);
+            local += argumentType.getSize();
+        }
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, interfaceName, method.getName(), Type.getMethodDescriptor(method), true);
+    }
+
+    private static void loadTransactionManager(final MethodVisitor mv, final String internalName) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, internalName, TRANSACTION_MANAGER, MANAGER_DESCRIPTOR);
+    }
+
+    private static void completeTransaction(final MethodVisitor mv, final String internalName, final int statusLocal, final String name) {
+        loadTransactionManager(mv, internalName);
+        mv.visitVarInsn(Opcodes.ALOAD, statusLocal);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, MANAGER, name, COMPLETE, true);
+    }
+
+    private static void pushInt(final MethodVisitor mv, final int value) {
+        if (value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        }
+    }
+
+    private static class ProxyClassLoader extends ClassLoader {
+
+        ProxyClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private static class ProxyClass {
+
+        private final MethodHandle constructor;
+        private final TransactionAttribute[] attributes;
+
+        ProxyClass(final MethodHandle constructor, final TransactionAttribute[] attributes) {
+            this.constructor = constructor;
+            this.attributes = attributes;
+        }
+    }
+
+    private static class ProxyKey {
+
+        private final Class<?> interfaceType;
+        private final Class<?> targetClass;
+
+        ProxyKey(final Class<?> interfaceType, final Class<?> targetClass) {
+            this.interfaceType = interfaceType;
+            this.targetClass = targetClass;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ProxyKey)) return false;
+            final var that = (ProxyKey) o;
+            return interfaceType == that.interfaceType && targetClass == that.targetClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(interfaceType, targetClass);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package aop.repository;
+
+import aop.domain.UserHistory;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 이력을 user_history 대신 user_history_outbox에 기록한다.
+ * outbox 행은 비즈니스 트랜잭션과 함께 커밋되고, UserHistoryOutboxRelay가 백그라운드에서 user_history로 옮긴다.
+ * relay가 밀려서 outbox에 쌓인 행이 maxPending을 넘으면 TransientDataAccessResourceException으로 기록을 거부한다. (backpressure)
+ *
+ * 밀렸을 때 user_history에 바로 기록하면 outbox에 남은 예전 이력보다 새 이력이 먼저 들어가서 순서가 뒤바뀌고,
+ * 생산자는 계속 같은 속도로 쓰므로 outbox도 줄어들지 않는다. 그래서 생산자 쪽 트랜잭션을 실패시켜 쓰기 속도를 relay에 맞춘다.
+ * 거부는 relay가 outbox를 maxPending 아래로 비우면 풀린다.
+ */
+public class OutboxUserHistoryDao extends UserHistoryDao {
+
+    private static final String INSERT_OUTBOX_SQL = "insert into user_history_outbox (user_id, account, password, email, created_at, created_by) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserHistoryOutboxRelay relay;
+
+    public OutboxUserHistoryDao(final JdbcTemplate jdbcTemplate, final UserHistoryOutboxRelay relay) {
+        super(jdbcTemplate);
+        this.jdbcTemplate = jdbcTemplate;
+        this.relay = relay;
+    }
+
+    @Override
+    public void log(final UserHistory userHistory) {
+        if (relay.isBackedUp()) {
+            throw new TransientDataAccessResourceException(
+                    "user_history_outbox is backed up: pending=" + relay.getPending() + ", lag=" + relay.getLagMillis() + "ms");
+        }
+        jdbcTemplate.update(INSERT_OUTBOX_SQL,
+                userHistory.getUserId(),
+                userHistory.getAccount(),
+                userHistory.getPassword(),
+                userHistory.getEmail(),
+                userHistory.getCreatedAt(),
+                userHistory.getCreateBy()
+        );
+    }
+}
@@ -1,17 +1,27 @@
 package aop.repository;
 
+import aop.Timed;
 import aop.domain.User;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 @Repository
+@Timed
 public class UserDao {
 
     private final JdbcTemplate jdbcTemplate;
 
+    private final LongAdder identityMapHits = new LongAdder();
+    private final LongAdder identityMapMisses = new LongAdder();
+
     public UserDao(final JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
     }
@@ -24,6 +34,10 @@ public class UserDao {
     public void update(final User user) {
         final var sql = "update users set account = ?, password = ?, email = ? where id = ?";
         jdbcTemplate.update(sql, user.getAccount(), user.getPassword(), user.getEmail(), user.getId());
+        final var identityMap = currentIdentityMap();
+        if (identityMap != null) {
+            identityMap.put(user);
+        }
     }
 
     public List<User> findAll() {
@@ -31,16 +45,76 @@ public class UserDao {
         return jdbcTemplate.query(sql, createRowMapper());
     }
 
+    /**
+     * 트랜잭션(동기화) 범위 안에서는 한 번 조회한 user를 기억해뒀다가 같은 객체를 돌려준다.
+     * 커밋, 롤백되면 버리므로 다른 트랜잭션에서 조회한 값을 보지 않는다.
+     */
     public User findById(final Long id) {
+        final var identityMap = currentIdentityMap();
+        if (identityMap == null) {
+            return selectById(id);
+        }
+        final var cached = identityMap.byId.get(id);
+        if (cached != null) {
+            identityMapHits.increment();
+            return cached;
+        }
+        identityMapMisses.increment();
+        return identityMap.put(selectById(id));
+    }
+
+    public User findByAccount(final String account) {
+        final var identityMap = currentIdentityMap();
+        if (identityMap == null) {
+            return selectByAccount(account);
+        }
+        final var cached = identityMap.byAccount.get(account);
+        if (cached != null) {
+            identityMapHits.increment();
+            return cached;
+        }
+        identityMapMisses.increment();
+        return identityMap.put(selectByAccount(account));
+    }
+
+    private User selectById(final Long id) {
         final var sql = "select id, account, password, email from users where id = ?";
         return jdbcTemplate.queryForObject(sql, createRowMapper(), id);
     }
 
-    public User findByAccount(final String account) {
+    private User selectByAccount(final String account) {
         final var sql = "select id, account, password, email from users where account = ?";
         return jdbcTemplate.queryForObject(sql, createRowMapper(), account);
     }
 
+    private IdentityMap currentIdentityMap() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        final var identityMap = (IdentityMap) TransactionSynchronizationManager.getResource(this);
+        if (identityMap != null) {
+            return identityMap;
+        }
+        final var created = new IdentityMap(this);
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(created);
+        return created;
+    }
+
+    public long getIdentityMapHits() {
+        return identityMapHits.sum();
+    }
+
+    public long getIdentityMapMisses() {
+        return identityMapMisses.sum();
+    }
+
+    public double getIdentityMapHitRate() {
+        final var hits = identityMapHits.sum();
+        final var total = hits + identityMapMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
     private static RowMapper<User> createRowMapper() {
         return (final var rs, final var i) -> new User(
                 rs.getLong("id"),
@@ -48,4 +122,41 @@ public class UserDao {
                 rs.getString("password"),
                 rs.getString("email"));
     }
+
+    // REQUIRES_NEW로 바깥 트랜잭션이 일시 중단되면 함께 분리해서 안쪽 트랜잭션이 보지 않게 한다.
+    private static class IdentityMap implements TransactionSynchronization {
+
+        private final UserDao owner;
+        private final Map<Long, User> byId = new HashMap<>();
+        private final Map<String, User> byAccount = new HashMap<>();
+
+        IdentityMap(final UserDao owner) {
+            this.owner = owner;
+        }
+
+        // 같은 id로 기억해둔 user의 account가 바뀌었으면 예전 account로는 더 이상 찾지 않게 지운다.
+        User put(final User user) {
+            final var previous = byId.put(user.getId(), user);
+            if (previous != null && !previous.getAccount().equals(user.getAccount())) {
+                byAccount.remove(previous.getAccount(), previous);
+            }
+            byAccount.put(user.getAccount(), user);
+            return user;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(owner);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(owner, this);
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(owner);
+        }
+    }
 }
@@ -1,27 +1,103 @@
 package aop.repository;
 
+import aop.Timed;
 import aop.domain.UserHistory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Repository
+@Timed
 public class UserHistoryDao {
 
+    private static final String INSERT_SQL = "insert into user_history (user_id, account, password, email, created_at, created_by) values (?, ?, ?, ?, ?, ?)";
+
     private final JdbcTemplate jdbcTemplate;
 
     public UserHistoryDao(final JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    /**
+     * 트랜잭션 안에서 호출하면 바로 insert 하지 않고 모아뒀다가 커밋 직전에 한 번의 배치로 insert 한다.
+     * 롤백되면 모아둔 이력은 버린다. 트랜잭션 밖에서 호출하면 바로 insert 한다.
+     *
+     * 트랜잭션 안에서는 insert가 커밋 시점에 실행되므로 제약 조건 위반 같은 insert 실패는 log()가 아니라 커밋에서 예외로 드러나고,
+     * 그 트랜잭션은 롤백된다. log()를 try-catch로 감싸서 이력 실패만 무시하는 코드는 더 이상 동작하지 않는다.
+     */
     public void log(final UserHistory userHistory) {
-        final var sql = "insert into user_history (user_id, account, password, email, created_at, created_by) values (?, ?, ?, ?, ?, ?)";
-        jdbcTemplate.update(sql,
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(INSERT_SQL, toParameters(userHistory));
+            return;
+        }
+        currentBuffer().add(userHistory);
+    }
+
+    // 동기화 객체는 트랜잭션마다 따로 관리되므로 REQUIRES_NEW로 시작한 트랜잭션은 바깥 트랜잭션의 버퍼를 보지 않는다.
+    private WriteBehindBuffer currentBuffer() {
+        for (final var synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof WriteBehindBuffer && ((WriteBehindBuffer) synchronization).isOwnedBy(this)) {
+                return (WriteBehindBuffer) synchronization;
+            }
+        }
+        final var buffer = new WriteBehindBuffer(this);
+        TransactionSynchronizationManager.registerSynchronization(buffer);
+        return buffer;
+    }
+
+    private void flush(final List<UserHistory> userHistories) {
+        if (userHistories.isEmpty()) {
+            return;
+        }
+        final var batchArgs = new ArrayList<Object[]>(userHistories.size());
+        for (final var userHistory : userHistories) {
+            batchArgs.add(toParameters(userHistory));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+
+    private static Object[] toParameters(final UserHistory userHistory) {
+        return new Object[]{
                 userHistory.getUserId(),
                 userHistory.getAccount(),
                 userHistory.getPassword(),
                 userHistory.getEmail(),
                 userHistory.getCreatedAt(),
                 userHistory.getCreateBy()
-        );
+        };
+    }
+
+    private static class WriteBehindBuffer implements TransactionSynchronization {
+
+        private final UserHistoryDao owner;
+        private final List<UserHistory> userHistories = new ArrayList<>();
+
+        WriteBehindBuffer(final UserHistoryDao owner) {
+            this.owner = owner;
+        }
+
+        boolean isOwnedBy(final UserHistoryDao userHistoryDao) {
+            return owner == userHistoryDao;
+        }
+
+        void add(final UserHistory userHistory) {
+            userHistories.add(userHistory);
+        }
+
+        // beforeCommit에서 예외가 발생하면 트랜잭션은 롤백된다.
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            owner.flush(userHistories);
+            userHistories.clear();
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            userHistories.clear();
+        }
     }
 }
@@ -0,0 +1,165 @@
+package aop.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * user_history_outbox에 쌓인 이력을 백그라운드 스레드 하나가 batchSize 단위로 user_history에 옮긴다.
+ * 옮긴 행의 insert와 outbox 행의 delete를 한 트랜잭션에서 실행하므로,
+ * 애플리케이션이 중간에 종료되어도 다시 시작하면 outbox에 남은 행부터 이어서 처리한다.
+ *
+ * relay가 여러 개 동시에 동작하는 경우는 고려하지 않았다. (select ... for update skip locked 필요)
+ */
+public class UserHistoryOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(UserHistoryOutboxRelay.class);
+
+    private static final String SELECT_SQL = "select id, user_id, account, password, email, created_at, created_by from user_history_outbox order by id limit ?";
+    private static final String INSERT_SQL = "insert into user_history (user_id, account, password, email, created_at, created_by) values ";
+    private static final String INSERT_VALUES = "(?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "delete from user_history_outbox where id in ";
+    private static final String STATUS_SQL = "select count(*), min(created_at) from user_history_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final long maxPending;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final var thread = new Thread(runnable, "user-history-outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile long pending;
+    private volatile long lagMillis;
+
+    public UserHistoryOutboxRelay(final JdbcTemplate jdbcTemplate, final PlatformTransactionManager transactionManager,
+                                  final int batchSize, final Duration pollInterval, final long maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.maxPending = maxPending;
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(pollInterval.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * outbox가 빌 때까지(한 번에 batchSize보다 적게 옮길 때까지) 옮긴다.
+     * 지연 지표는 배치마다 갱신하고, 옮기다가 실패해도 마지막에 한 번 더 갱신한다.
+     * 오래 밀린 outbox를 비우는 동안에도 isBackedUp()이 예전 값에 머무르지 않게 하기 위해서다.
+     */
+    public void drain() {
+        try {
+            while (relayBatch() == batchSize) {
+                refreshStatus();
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to relay user history outbox", e);
+        } finally {
+            try {
+                refreshStatus();
+            } catch (RuntimeException e) {
+                log.error("Failed to refresh user history outbox status", e);
+            }
+        }
+    }
+
+    private int relayBatch() {
+        final Integer moved = transactionTemplate.execute(status -> {
+            final var rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Object[]{
+                    rs.getLong("id"),
+                    rs.getLong("user_id"),
+                    rs.getString("account"),
+                    rs.getString("password"),
+                    rs.getString("email"),
+                    rs.getTimestamp("created_at"),
+                    rs.getString("created_by")
+            }, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            final var insertParameters = new ArrayList<>(rows.size() * 6);
+            final var ids = new ArrayList<>(rows.size());
+            for (final var row : rows) {
+                ids.add(row[0]);
+                for (int i = 1; i < row.length; i++) {
+                    insertParameters.add(row[i]);
+                }
+            }
+            jdbcTemplate.update(INSERT_SQL + placeholders(INSERT_VALUES, rows.size()), insertParameters.toArray());
+            // id 순서대로 커밋된다는 보장이 없으므로 범위가 아니라 옮긴 id로만 삭제한다.
+            jdbcTemplate.update(DELETE_SQL + "(" + placeholders("?", ids.size()) + ")", ids.toArray());
+            return rows.size();
+        });
+        if (moved != null && moved > 0) {
+            relayed.add(moved);
+            batches.increment();
+            log.debug("Relayed {} user histories", moved);
+        }
+        return moved == null ? 0 : moved;
+    }
+
+    void refreshStatus() {
+        jdbcTemplate.query(STATUS_SQL, (RowCallbackHandler) rs -> {
+            pending = rs.getLong(1);
+            final Timestamp oldest = rs.getTimestamp(2);
+            lagMillis = oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.getTime());
+        });
+    }
+
+    private static String placeholders(final String placeholder, final int count) {
+        return String.join(", ", Collections.nCopies(count, placeholder));
+    }
+
+    /**
+     * outbox에 남은 행이 maxPending을 넘으면 true. 이때 OutboxUserHistoryDao는 이력 기록을 거부한다.
+     */
+    public boolean isBackedUp() {
+        return pending > maxPending;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public long getRelayedCount() {
+        return relayed.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+}
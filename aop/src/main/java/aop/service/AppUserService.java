@@ -1,11 +1,16 @@
 package aop.service;
 
+import aop.CacheEvict;
+import aop.Cacheable;
+import aop.Timed;
 import aop.Transactional;
 import aop.domain.User;
 import aop.domain.UserHistory;
 import aop.repository.UserDao;
 import aop.repository.UserHistoryDao;
+import org.springframework.transaction.annotation.Propagation;
 
+@Timed
 public class AppUserService implements UserService {
 
     private final UserDao userDao;
@@ -16,7 +21,8 @@ public class AppUserService implements UserService {
         this.userHistoryDao = userHistoryDao;
     }
 
-    @Transactional
+    @Cacheable("users")
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public User findById(final long id) {
         return userDao.findById(id);
     }
@@ -26,6 +32,7 @@ public class AppUserService implements UserService {
         userDao.insert(user);
     }
 
+    @CacheEvict(value = "users", keyArgs = 0)
     @Transactional
     public void changePassword(final long id, final String newPassword, final String createBy) {
         final var user = findById(id);
@@ -0,0 +1,111 @@
+package aop.timing;
+
+import java.util.Locale;
+
+/**
+ * 스레드마다 하나씩 두는 호출 기록. 가장 바깥 @Timed 호출이 끝날 때까지 안쪽 호출을 순서대로 쌓아둔다.
+ * 배열을 미리 만들어두고 재사용하므로 기록할 때 객체를 만들지 않는다.
+ * MAX_ENTRIES를 넘는 호출은 시간만 측정하고 trace에는 남기지 않는다.
+ */
+final class CallTrace {
+
+    static final int MAX_ENTRIES = 256;
+    private static final int NOT_RECORDED = -1;
+
+    private static final ThreadLocal<CallTrace> CURRENT = ThreadLocal.withInitial(CallTrace::new);
+
+    private final MethodTimer[] timers = new MethodTimer[MAX_ENTRIES];
+    private final int[] depths = new int[MAX_ENTRIES];
+    private final long[] starts = new long[MAX_ENTRIES];
+    private final long[] durations = new long[MAX_ENTRIES];
+    private final long[] transactionNanos = new long[MAX_ENTRIES];
+    private final int[] stack = new int[MAX_ENTRIES];
+    private final long[] stackTransactionNanos = new long[MAX_ENTRIES];
+
+    private int size;
+    private int depth;
+    private int overflowDepth;
+    private int dropped;
+
+    static CallTrace current() {
+        return CURRENT.get();
+    }
+
+    void enter(final MethodTimer timer, final long start) {
+        if (depth == MAX_ENTRIES) {
+            overflowDepth++;
+            dropped++;
+            return;
+        }
+        stackTransactionNanos[depth] = 0;
+        if (size == MAX_ENTRIES) {
+            dropped++;
+            stack[depth++] = NOT_RECORDED;
+            return;
+        }
+        timers[size] = timer;
+        depths[size] = depth;
+        starts[size] = start;
+        durations[size] = 0;
+        transactionNanos[size] = 0;
+        stack[depth++] = size++;
+    }
+
+    /**
+     * 현재 열려있는 가장 안쪽 호출에 트랜잭션 시작, 커밋에 쓴 시간을 더한다.
+     */
+    void addTransactionNanos(final long nanos) {
+        if (depth > 0 && overflowDepth == 0) {
+            stackTransactionNanos[depth - 1] += nanos;
+        }
+    }
+
+    /**
+     * @return 이 호출에서 트랜잭션 시작, 커밋에 쓴 시간
+     */
+    long exit(final long end) {
+        if (overflowDepth > 0) {
+            overflowDepth--;
+            return 0;
+        }
+        if (depth == 0) {
+            return 0;
+        }
+        final var index = stack[--depth];
+        final var spent = stackTransactionNanos[depth];
+        if (index != NOT_RECORDED) {
+            durations[index] = end - starts[index];
+            transactionNanos[index] = spent;
+        }
+        return spent;
+    }
+
+    boolean isIdle() {
+        return depth == 0 && overflowDepth == 0;
+    }
+
+    void reset() {
+        for (int i = 0; i < size; i++) {
+            timers[i] = null;
+        }
+        size = 0;
+        depth = 0;
+        overflowDepth = 0;
+        dropped = 0;
+    }
+
+    String format() {
+        final var builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            builder.append('\n')
+                    .append("  ".repeat(depths[i]))
+                    .append(timers[i].getName())
+                    .append(String.format(Locale.ROOT, " %.3fms (tx %.3fms)",
+                            durations[i] / 1_000_000.0, transactionNanos[i] / 1_000_000.0));
+        }
+        if (dropped > 0) {
+            builder.append('\n').append("... ").append(dropped).append(" calls omitted");
+        }
+        return builder.toString();
+    }
+}
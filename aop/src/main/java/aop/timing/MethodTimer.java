@@ -0,0 +1,67 @@
+package aop.timing;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메서드 하나의 실행 시간 분포.
+ * 전체 시간과 함께 트랜잭션 시작, 커밋에 쓴 시간과 대상 메서드에서 쓴 시간을 나눠서 기록한다.
+ *
+ * ConcurrentHistogram은 기록할 때 객체를 만들지 않는다. 조회할 때는 복사본을 돌려준다.
+ */
+public class MethodTimer {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final String name;
+    private final long slowThresholdNanos;
+    private final ConcurrentHistogram total = newHistogram();
+    private final ConcurrentHistogram transaction = newHistogram();
+    private final ConcurrentHistogram target = newHistogram();
+
+    public MethodTimer(final String name, final long slowThresholdNanos) {
+        this.name = name;
+        this.slowThresholdNanos = slowThresholdNanos;
+    }
+
+    private static ConcurrentHistogram newHistogram() {
+        return new ConcurrentHistogram(1, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    }
+
+    void record(final long totalNanos, final long transactionNanos) {
+        total.recordValue(clamp(totalNanos));
+        transaction.recordValue(clamp(transactionNanos));
+        target.recordValue(clamp(totalNanos - transactionNanos));
+    }
+
+    private static long clamp(final long nanos) {
+        return Math.max(0, Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSlowThresholdNanos() {
+        return slowThresholdNanos;
+    }
+
+    public long getCount() {
+        return total.getTotalCount();
+    }
+
+    public Histogram getTotal() {
+        return total.copy();
+    }
+
+    public Histogram getTransaction() {
+        return transaction.copy();
+    }
+
+    public Histogram getTarget() {
+        return target.copy();
+    }
+}
@@ -0,0 +1,99 @@
+package aop.timing;
+
+import aop.Timed;
+import org.HdrHistogram.Histogram;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * (메서드, 대상 클래스)마다 MethodTimer를 하나씩 만들어 보관한다.
+ */
+public class MethodTimerRegistry {
+
+    private final long defaultSlowThresholdNanos;
+    private final Map<Method, Map<Class<?>, MethodTimer>> timers = new ConcurrentHashMap<>();
+    private final LongAdder slowCalls = new LongAdder();
+
+    public MethodTimerRegistry(final Duration defaultSlowThreshold) {
+        this.defaultSlowThresholdNanos = defaultSlowThreshold.toNanos();
+    }
+
+    // 처음 호출할 때만 computeIfAbsent로 만들고, 이후에는 get만 하므로 객체를 만들지 않는다.
+    MethodTimer timerFor(final Method method, final Class<?> targetClass) {
+        final var byClass = timers.get(method);
+        if (byClass != null) {
+            final var timer = byClass.get(targetClass);
+            if (timer != null) {
+                return timer;
+            }
+        }
+        return timers.computeIfAbsent(method, ignored -> new ConcurrentHashMap<>())
+                .computeIfAbsent(targetClass, ignored -> createTimer(method, targetClass));
+    }
+
+    private MethodTimer createTimer(final Method method, final Class<?> targetClass) {
+        var timed = AnnotatedElementUtils.findMergedAnnotation(method, Timed.class);
+        if (timed == null) {
+            timed = AnnotatedElementUtils.findMergedAnnotation(targetClass, Timed.class);
+        }
+        final var slowThresholdNanos = timed == null || timed.slowThresholdMillis() < 0
+                ? defaultSlowThresholdNanos
+                : Duration.ofMillis(timed.slowThresholdMillis()).toNanos();
+        return new MethodTimer(targetClass.getSimpleName() + "." + method.getName(), slowThresholdNanos);
+    }
+
+    void recordSlowCall() {
+        slowCalls.increment();
+    }
+
+    public long getSlowCallCount() {
+        return slowCalls.sum();
+    }
+
+    public List<MethodTimer> getTimers() {
+        return timers.values().stream()
+                .flatMap(byClass -> byClass.values().stream())
+                .sorted(Comparator.comparing(MethodTimer::getName))
+                .collect(Collectors.toList());
+    }
+
+    public MethodTimer getTimer(final String name) {
+        return getTimers().stream()
+                .filter(timer -> timer.getName().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public String report() {
+        final var header = String.format(Locale.ROOT, "%-36s %10s %10s %10s %10s %10s %10s",
+                "method", "count", "p50(ms)", "p99(ms)", "max(ms)", "tx p99", "target p99");
+        return header + "\n" + "-".repeat(header.length()) + "\n" + getTimers().stream()
+                .map(MethodTimerRegistry::toRow)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String toRow(final MethodTimer timer) {
+        final var total = timer.getTotal();
+        return String.format(Locale.ROOT, "%-36s %10d %10.3f %10.3f %10.3f %10.3f %10.3f",
+                timer.getName(),
+                total.getTotalCount(),
+                millis(total, 50),
+                millis(total, 99),
+                total.getMaxValue() / 1_000_000.0,
+                millis(timer.getTransaction(), 99),
+                millis(timer.getTarget(), 99));
+    }
+
+    private static double millis(final Histogram histogram, final double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,57 @@
+package aop.timing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+
+import java.util.function.Consumer;
+
+/**
+ * @Timed 메서드의 실행 시간을 MethodTimer에 기록한다.
+ * 가장 바깥 호출이 느리면 안쪽 @Timed 호출(UserDao, UserHistoryDao 등)을 포함한 trace를 남긴다.
+ *
+ * 느린 호출이 아니면 객체를 만들지 않는다.
+ */
+public class TimedAdvice implements MethodInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(TimedAdvice.class);
+
+    private final MethodTimerRegistry registry;
+    private final Consumer<String> slowCallLogger;
+
+    public TimedAdvice(final MethodTimerRegistry registry) {
+        this(registry, trace -> log.warn("Slow call{}", trace));
+    }
+
+    public TimedAdvice(final MethodTimerRegistry registry, final Consumer<String> slowCallLogger) {
+        this.registry = registry;
+        this.slowCallLogger = slowCallLogger;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final var targetClass = invocation.getThis() == null
+                ? invocation.getMethod().getDeclaringClass()
+                : AopUtils.getTargetClass(invocation.getThis());
+        final var timer = registry.timerFor(invocation.getMethod(), targetClass);
+        final var trace = CallTrace.current();
+        final var start = System.nanoTime();
+        trace.enter(timer, start);
+        try {
+            return invocation.proceed();
+        } finally {
+            final var end = System.nanoTime();
+            final var transactionNanos = trace.exit(end);
+            timer.record(end - start, transactionNanos);
+            if (trace.isIdle()) {
+                if (end - start >= timer.getSlowThresholdNanos()) {
+                    registry.recordSlowCall();
+                    slowCallLogger.accept(trace.format());
+                }
+                trace.reset();
+            }
+        }
+    }
+}
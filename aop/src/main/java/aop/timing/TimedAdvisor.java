@@ -0,0 +1,44 @@
+package aop.timing;
+
+import aop.Timed;
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.Ordered;
+
+/**
+ * 클래스나 메서드에 @Timed가 있으면 TimedAdvice를 적용한다.
+ * 트랜잭션 어드바이스보다 바깥에서 실행되어야 트랜잭션 시작, 커밋 시간을 포함하므로 가장 높은 우선순위를 갖는다.
+ */
+public class TimedAdvisor implements PointcutAdvisor, Ordered {
+
+    private final Pointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Timed.class, true))
+            .union(AnnotationMatchingPointcut.forMethodAnnotation(Timed.class));
+    private final TimedAdvice advice;
+
+    public TimedAdvisor(final MethodTimerRegistry registry) {
+        this.advice = new TimedAdvice(registry);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    @Override
+    public boolean isPerInstance() {
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,57 @@
+package aop.timing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 트랜잭션 매니저 빈을 프록시로 감싸서 트랜잭션 시작, 커밋, 롤백에 걸린 시간을 현재 @Timed 호출에 더한다.
+ * 어드바이저 자동 프록시 생성기가 어드바이저를 만들면서 트랜잭션 매니저를 먼저 생성하므로 그보다 먼저 등록되도록 PriorityOrdered를 구현한다.
+ *
+ * AbstractPlatformTransactionManager의 getTransaction, commit, rollback은 final 이라서 클래스 프록시를 만들 수 없다.
+ * 대신 원래 빈이 구현한 인터페이스(ResourceTransactionManager 등)를 모두 구현하는 JDK 프록시를 만든다.
+ * DataSourceTransactionManager 같은 구체 클래스로 주입받는 코드는 깨지므로 aop.timing.transaction-manager=true 일 때만 등록한다.
+ * 프록시 호출마다 MethodInvocation과 인자 배열을 만들어서 트랜잭션 하나에 약 144 B를 더 할당한다. (ProxyStrategyBenchmark의 timed)
+ */
+public class TimedTransactionManagerPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+    private static final NameMatchMethodPointcutAdvisor TIMING_ADVISOR = new NameMatchMethodPointcutAdvisor(
+            (MethodInterceptor) invocation -> {
+                final var start = System.nanoTime();
+                try {
+                    return invocation.proceed();
+                } finally {
+                    CallTrace.current().addTransactionNanos(System.nanoTime() - start);
+                }
+            });
+
+    static {
+        TIMING_ADVISOR.setMappedNames("getTransaction", "commit", "rollback");
+    }
+
+    /**
+     * 빈 후처리기 없이 트랜잭션 매니저를 직접 감쌀 때 사용한다.
+     */
+    public static PlatformTransactionManager timed(final PlatformTransactionManager transactionManager) {
+        final var proxyFactory = new ProxyFactory(transactionManager);
+        proxyFactory.addAdvisor(TIMING_ADVISOR);
+        return (PlatformTransactionManager) proxyFactory.getProxy(transactionManager.getClass().getClassLoader());
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof PlatformTransactionManager) {
+            return timed((PlatformTransactionManager) bean);
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,325 @@
+package aop.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @Transactional 메서드가 있는 클래스마다 Transactional{클래스 이름} 하위 클래스를 컴파일 시점에 생성한다.
+ *
+ * 생성된 클래스는 @Transactional 메서드를 오버라이드해서 트랜잭션을 시작하고 super 메서드를 직접 호출한다.
+ * 런타임에 프록시를 만들지 않고 리플렉션도 사용하지 않는다.
+ * 같은 객체 안에서 다른 @Transactional 메서드를 호출해도(self-invocation) 오버라이드한 메서드가 호출되므로
+ * 트랜잭션 속성이 적용된다.
+ *
+ * <pre>
+ * final var userService = new TransactionalAppUserService(transactionManager, userDao, userHistoryDao);
+ * </pre>
+ *
+ * 대상 메서드가 던진 예외는 그대로 다시 던진다. 그 뒤의 롤백이나 커밋이 실패하면 그 예외는 원래 예외에 suppressed로 붙인다.
+ *
+ * 생성된 클래스는 스프링 빈으로 등록하지 않는다. 위처럼 직접 생성해서 쓰고,
+ * 런타임 프록시(TransactionAdvisor)가 적용되는 컨텍스트에 등록하면 트랜잭션이 두 번 적용된다.
+ *
+ * final 클래스, 중첩 클래스, 제네릭 클래스와 private, final, static 메서드에는 적용할 수 없어서 경고만 남긴다.
+ * 상위 클래스에서 상속받은 @Transactional 메서드는 오버라이드하지 않는다.
+ */
+@SupportedAnnotationTypes(TransactionalProcessor.TRANSACTIONAL)
+public class TransactionalProcessor extends AbstractProcessor {
+
+    static final String TRANSACTIONAL = "aop.Transactional";
+    private static final String PREFIX = "Transactional";
+    private static final String TRANSACTION_MANAGER = "org.springframework.transaction.PlatformTransactionManager";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final var annotation : annotations) {
+            final var methodsByType = new LinkedHashMap<TypeElement, List<ExecutableElement>>();
+            for (final var method : ElementFilter.methodsIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                methodsByType.computeIfAbsent((TypeElement) method.getEnclosingElement(), ignored -> new ArrayList<>())
+                        .add(method);
+            }
+            methodsByType.forEach(this::generate);
+        }
+        return false;
+    }
+
+    private void generate(final TypeElement type, final List<ExecutableElement> methods) {
+        if (!isSupported(type)) {
+            return;
+        }
+        final var transactionalMethods = methods.stream()
+                .filter(this::isSupported)
+                .collect(Collectors.toList());
+        if (transactionalMethods.isEmpty()) {
+            return;
+        }
+
+        final var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final var simpleName = PREFIX + type.getSimpleName();
+        final var qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (final var out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter())) {
+            new SourceWriter(out, type, simpleName, transactionalMethods).write(packageName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot generate " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private boolean isSupported(final TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS
+                || type.getNestingKind() != NestingKind.TOP_LEVEL
+                || type.getModifiers().contains(Modifier.FINAL)
+                || !type.getTypeParameters().isEmpty()) {
+            warn("@Transactional is only generated for non-final, non-generic top level classes", type);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isSupported(final ExecutableElement method) {
+        final var modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+            warn("@Transactional is ignored on private, final or static methods", method);
+            return false;
+        }
+        return true;
+    }
+
+    private void warn(final String message, final Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private class SourceWriter {
+
+        private final PrintWriter out;
+        private final TypeElement type;
+        private final String simpleName;
+        private final List<ExecutableElement> methods;
+
+        SourceWriter(final PrintWriter out, final TypeElement type, final String simpleName, final List<ExecutableElement> methods) {
+            this.out = out;
+            this.type = type;
+            this.simpleName = simpleName;
+            this.methods = methods;
+        }
+
+        void write(final String packageName) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("@javax.annotation.processing.Generated(\"" + TransactionalProcessor.class.getName() + "\")");
+            out.println((type.getModifiers().contains(Modifier.ABSTRACT) ? "public abstract class " : "public class ")
+                    + simpleName + " extends " + type.getQualifiedName() + " {");
+            out.println();
+            for (int i = 0; i < methods.size(); i++) {
+                writeAttribute(methods.get(i), i);
+            }
+            out.println();
+            out.println("    private final " + TRANSACTION_MANAGER + " transactionManager;");
+            for (final var constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+                if (!constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                    writeConstructor(constructor);
+                }
+            }
+            for (int i = 0; i < methods.size(); i++) {
+                writeMethod(methods.get(i), i);
+            }
+            out.println("}");
+        }
+
+        private void writeAttribute(final ExecutableElement method, final int index) {
+            final var values = annotationValues(method);
+            out.println("    private static final aop.TransactionAttribute " + attributeName(index) + " = aop.TransactionAttribute.of(");
+            out.println("            \"" + type.getQualifiedName() + "." + method.getSimpleName() + "\",");
+            out.println("            org.springframework.transaction.annotation.Propagation." + values.get("propagation") + ",");
+            out.println("            " + values.get("readOnly") + ",");
+            out.println("            java.util.List.of(" + values.get("rollbackFor") + "),");
+            out.println("            java.util.List.of(" + values.get("noRollbackFor") + "));");
+        }
+
+        private Map<String, String> annotationValues(final ExecutableElement method) {
+            final var values = new LinkedHashMap<String, String>();
+            values.put("propagation", "REQUIRED");
+            values.put("readOnly", "false");
+            values.put("rollbackFor", "");
+            values.put("noRollbackFor", "");
+            for (final AnnotationMirror mirror : method.getAnnotationMirrors()) {
+                if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(TRANSACTIONAL)) {
+                    continue;
+                }
+                mirror.getElementValues().forEach((element, value) ->
+                        values.put(element.getSimpleName().toString(), toSource(value)));
+            }
+            return values;
+        }
+
+        @SuppressWarnings("unchecked")
+        private String toSource(final AnnotationValue value) {
+            final var raw = value.getValue();
+            if (raw instanceof VariableElement) {
+                return ((VariableElement) raw).getSimpleName().toString();
+            }
+            if (raw instanceof List) {
+                return ((List<? extends AnnotationValue>) raw).stream()
+                        .map(element -> erasure((TypeMirror) element.getValue()) + ".class")
+                        .collect(Collectors.joining(", "));
+            }
+            return String.valueOf(raw);
+        }
+
+        private void writeConstructor(final ExecutableElement constructor) {
+            final var parameters = constructor.getParameters();
+            final var names = parameterNames(parameters);
+            final var managerName = uniqueName("transactionManager", names);
+            out.println();
+            out.println("    public " + simpleName + "(final " + TRANSACTION_MANAGER + " " + managerName
+                    + (parameters.isEmpty() ? "" : ", " + parameterList(constructor)) + ")" + throwsClause(constructor) + " {");
+            out.println("        super(" + String.join(", ", names) + ");");
+            out.println("        this.transactionManager = " + managerName + ";");
+            out.println("    }");
+        }
+
+        private void writeMethod(final ExecutableElement method, final int index) {
+            final var returnType = method.getReturnType();
+            final var isVoid = returnType.getKind() == TypeKind.VOID;
+            final var names = parameterNames(method.getParameters());
+            final var status = uniqueName("status", names);
+            final var result = uniqueName("result", names);
+            final var exception = uniqueName("e", names);
+            final var completionFailure = uniqueName("completionFailure", names);
+            final var attribute = attributeName(index);
+            final var call = "super." + method.getSimpleName() + "(" + String.join(", ", names) + ")";
+
+            out.println();
+            out.println("    @Override");
+            out.println("    " + visibility(method) + typeParameters(method) + returnType + " " + method.getSimpleName()
+                    + "(" + parameterList(method) + ")" + throwsClause(method) + " {");
+            out.println("        final org.springframework.transaction.TransactionStatus " + status
+                    + " = transactionManager.getTransaction(" + attribute + ".getDefinition());");
+            if (!isVoid) {
+                out.println("        final " + returnType + " " + result + ";");
+            }
+            out.println("        try {");
+            out.println("            " + (isVoid ? "" : result + " = ") + call + ";");
+            out.println("        } catch (final Throwable " + exception + ") {");
+            out.println("            try {");
+            out.println("                if (" + attribute + ".rollbackOn(" + exception + ")) {");
+            out.println("                    transactionManager.rollback(" + status + ");");
+            out.println("                } else {");
+            out.println("                    transactionManager.commit(" + status + ");");
+            out.println("                }");
+            out.println("            } catch (final Throwable " + completionFailure + ") {");
+            out.println("                " + exception + ".addSuppressed(" + completionFailure + ");");
+            out.println("            }");
+            out.println("            throw " + exception + ";");
+            out.println("        }");
+            out.println("        transactionManager.commit(" + status + ");");
+            if (!isVoid) {
+                out.println("        return " + result + ";");
+            }
+            out.println("    }");
+        }
+
+        private String visibility(final ExecutableElement method) {
+            if (method.getModifiers().contains(Modifier.PUBLIC)) {
+                return "public ";
+            }
+            if (method.getModifiers().contains(Modifier.PROTECTED)) {
+                return "protected ";
+            }
+            return "";
+        }
+
+        private String typeParameters(final ExecutableElement method) {
+            if (method.getTypeParameters().isEmpty()) {
+                return "";
+            }
+            final var parameters = new ArrayList<String>();
+            for (final TypeParameterElement parameter : method.getTypeParameters()) {
+                final var bounds = parameter.getBounds().stream()
+                        .map(TypeMirror::toString)
+                        .filter(bound -> !bound.equals("java.lang.Object"))
+                        .collect(Collectors.joining(" & "));
+                parameters.add(parameter.getSimpleName() + (bounds.isEmpty() ? "" : " extends " + bounds));
+            }
+            return "<" + String.join(", ", parameters) + "> ";
+        }
+
+        private String parameterList(final ExecutableElement executable) {
+            final var parameters = executable.getParameters();
+            final var declarations = new ArrayList<String>();
+            for (int i = 0; i < parameters.size(); i++) {
+                final var parameter = parameters.get(i);
+                var parameterType = parameter.asType().toString();
+                if (executable.isVarArgs() && i == parameters.size() - 1) {
+                    parameterType = ((ArrayType) parameter.asType()).getComponentType() + "...";
+                }
+                declarations.add("final " + parameterType + " " + parameter.getSimpleName());
+            }
+            return String.join(", ", declarations);
+        }
+
+        private String throwsClause(final ExecutableElement executable) {
+            if (executable.getThrownTypes().isEmpty()) {
+                return "";
+            }
+            return " throws " + executable.getThrownTypes().stream()
+                    .map(TypeMirror::toString)
+                    .collect(Collectors.joining(", "));
+        }
+
+        private List<String> parameterNames(final List<? extends VariableElement> parameters) {
+            return parameters.stream()
+                    .map(parameter -> parameter.getSimpleName().toString())
+                    .collect(Collectors.toList());
+        }
+
+        private String uniqueName(final String name, final List<String> taken) {
+            final Set<String> names = new LinkedHashSet<>(taken);
+            var candidate = name;
+            while (names.contains(candidate)) {
+                candidate = candidate + "_";
+            }
+            return candidate;
+        }
+
+        private String erasure(final TypeMirror typeMirror) {
+            return processingEnv.getTypeUtils().erasure(typeMirror).toString();
+        }
+
+        private String attributeName(final int index) {
+            return "ATTRIBUTE_" + index;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package aop.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        final var cache = new BoundedCache<Integer, String>("test", 2, Duration.ofMinutes(1));
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+
+        cache.put(3, "three");
+
+        assertThat(cache.get(1)).isEqualTo("one");
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(3)).isEqualTo("three");
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void expireAfterTtl() {
+        final var now = new AtomicLong();
+        final var cache = new BoundedCache<Integer, String>("test", 10, Duration.ofSeconds(1), now::get);
+        cache.put(1, "one");
+
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        assertThat(cache.get(1)).isEqualTo("one");
+
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.getExpirations()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void rejectPutAfterEviction() {
+        final var cache = new BoundedCache<Integer, String>("test", 10, Duration.ofMinutes(1));
+        final var stamp = cache.stamp(1);
+
+        cache.evict(1);
+
+        assertThat(cache.putIfUnchanged(1, "stale", stamp)).isFalse();
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.putIfUnchanged(1, "fresh", cache.stamp(1))).isTrue();
+        assertThat(cache.get(1)).isEqualTo("fresh");
+    }
+
+    @Test
+    void boundSizeAcrossSegments() {
+        final var cache = new BoundedCache<Integer, Integer>("test", 1_000, Duration.ofMinutes(1));
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(1_000);
+        assertThat(cache.get(9_999)).isEqualTo(9_999);
+    }
+}
@@ -0,0 +1,152 @@
+package aop.cache;
+
+import aop.DataAccessException;
+import aop.domain.User;
+import aop.domain.UserHistory;
+import aop.repository.UserDao;
+import aop.repository.UserHistoryDao;
+import aop.service.AppUserService;
+import aop.service.UserService;
+import aop.stage1.TransactionAdvisor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CacheAdviceTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private CacheRegistry cacheRegistry;
+    private final AtomicInteger selects = new AtomicInteger();
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        cacheRegistry = new CacheRegistry(100, Duration.ofMinutes(1));
+        final var userDao = new UserDao(jdbcTemplate);
+        userDao.insert(new User("gugu", "password", "hkkang@woowahan.com"));
+        userId = userDao.findByAccount("gugu").getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void returnCachedResult() {
+        final var userService = createUserService(new UserHistoryDao(jdbcTemplate));
+
+        final var first = userService.findById(userId);
+        final var second = userService.findById(userId);
+
+        assertThat(second).isSameAs(first);
+        assertThat(selects).hasValue(1);
+        assertThat(cacheRegistry.getCache("users").getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void evictAfterCommit() {
+        final var userService = createUserService(new UserHistoryDao(jdbcTemplate));
+        userService.findById(userId);
+
+        userService.changePassword(userId, "qqqqq", "gugu");
+
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("qqqqq");
+    }
+
+    @Test
+    void keepCachedResultOnRollback() {
+        final var userService = createUserService(new UserHistoryDao(jdbcTemplate) {
+            @Override
+            public void log(final UserHistory userHistory) {
+                throw new DataAccessException();
+            }
+        });
+        userService.findById(userId);
+
+        assertThrows(DataAccessException.class, () -> userService.changePassword(userId, "newPassword", "gugu"));
+
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("password");
+    }
+
+    @Test
+    void deferEvictionUntilOuterTransactionCommits() {
+        final var userService = createUserService(new UserHistoryDao(jdbcTemplate));
+        userService.findById(userId);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.changePassword(userId, "qqqqq", "gugu");
+            assertThat(userService.findById(userId).getPassword()).isEqualTo("qqqqq");
+            assertThat(cacheRegistry.getCache("users").get(userId)).isNotNull();
+        });
+
+        assertThat(cacheRegistry.getCache("users").get(userId)).isNull();
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("qqqqq");
+    }
+
+    @Test
+    void noStaleReadAfterOuterTransactionRollback() {
+        final var userService = createUserService(new UserHistoryDao(jdbcTemplate));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.changePassword(userId, "qqqqq", "gugu");
+            userService.findById(userId);
+            status.setRollbackOnly();
+        });
+
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("password");
+    }
+
+    @Test
+    void evictImmediatelyWithoutActualTransaction() {
+        final var userService = createUserService(new UserHistoryDao(jdbcTemplate));
+        userService.findById(userId);
+        final var supports = new TransactionTemplate(transactionManager);
+        supports.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+
+        supports.executeWithoutResult(status -> {
+            userService.changePassword(userId, "qqqqq", "gugu");
+            assertThat(cacheRegistry.getCache("users").get(userId)).isNull();
+            status.setRollbackOnly();
+        });
+
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("qqqqq");
+    }
+
+    private UserService createUserService(final UserHistoryDao userHistoryDao) {
+        final var userDao = new UserDao(jdbcTemplate) {
+            @Override
+            public User findById(final Long id) {
+                selects.incrementAndGet();
+                return super.findById(id);
+            }
+        };
+        final var proxyFactory = new ProxyFactory(new AppUserService(userDao, userHistoryDao));
+        proxyFactory.addAdvisor(new CacheAdvisor(cacheRegistry));
+        proxyFactory.addAdvisor(new TransactionAdvisor(transactionManager));
+        return (UserService) proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,176 @@
+package aop.datasource;
+
+import aop.TransactionAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadOnlyConnectionDataSourceTest {
+
+    private StubDataSource targetDataSource;
+    private ReadOnlyConnectionDataSource dataSource;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        targetDataSource = new StubDataSource();
+        dataSource = new ReadOnlyConnectionDataSource(targetDataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void readOnlyWithoutTransaction() {
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            final var connection = DataSourceUtils.getConnection(dataSource);
+            assertThat(targetDataSource.last.readOnly).isTrue();
+            assertThat(targetDataSource.last.autoCommitChanged).isFalse();
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        });
+
+        assertThat(targetDataSource.last.readOnly).isFalse();
+        assertThat(targetDataSource.last.closed).isTrue();
+    }
+
+    @Test
+    void resetSkippedWhenAlreadyReset() {
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            final var connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                connection.setReadOnly(false);
+                assertThat(connection.isReadOnly()).isFalse();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        });
+
+        assertThat(targetDataSource.last.setReadOnlyCount).isEqualTo(2);
+        assertThat(targetDataSource.last.closed).isTrue();
+    }
+
+    @Test
+    void readOnlyRequiredStartsTransaction() {
+        final var attribute = TransactionAttribute.of("findById", Propagation.REQUIRED, true, List.of(), List.of());
+        transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), attribute.getDefinition());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            DataSourceUtils.getConnection(dataSource);
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+            assertThat(targetDataSource.last.autoCommitChanged).isTrue();
+            assertThat(targetDataSource.last.readOnly).isTrue();
+        });
+    }
+
+    @Test
+    void shutdownEmbeddedDatabase() {
+        final var embeddedDatabase = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        final var readOnlyDataSource = new ReadOnlyConnectionDataSource(embeddedDatabase);
+        final var jdbcTemplate = new JdbcTemplate(readOnlyDataSource);
+        jdbcTemplate.execute("create table shutdown_check (id bigint)");
+
+        readOnlyDataSource.shutdown();
+
+        assertThatThrownBy(() -> jdbcTemplate.execute("select count(*) from shutdown_check"))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void notReadOnlyOutsideReadOnlyScope() throws SQLException {
+        final var connection = dataSource.getConnection();
+
+        assertThat(connection).isSameAs(targetDataSource.last.connection);
+        assertThat(targetDataSource.last.readOnly).isFalse();
+    }
+
+    @Test
+    void readWriteTransaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            DataSourceUtils.getConnection(dataSource);
+            assertThat(targetDataSource.last.readOnly).isFalse();
+            assertThat(targetDataSource.last.autoCommitChanged).isTrue();
+        });
+    }
+
+    private static class StubDataSource extends AbstractDataSource {
+
+        private ConnectionState last;
+
+        @Override
+        public Connection getConnection() {
+            last = new ConnectionState();
+            return last.connection;
+        }
+
+        @Override
+        public Connection getConnection(final String username, final String password) {
+            return getConnection();
+        }
+    }
+
+    private static class ConnectionState {
+
+        private boolean readOnly;
+        private int setReadOnlyCount;
+        private boolean autoCommit = true;
+        private boolean autoCommitChanged;
+        private boolean closed;
+
+        private final Connection connection = (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setReadOnly":
+                            readOnly = (boolean) args[0];
+                            setReadOnlyCount++;
+                            return null;
+                        case "isReadOnly":
+                            return readOnly;
+                        case "setAutoCommit":
+                            autoCommitChanged = true;
+                            autoCommit = (boolean) args[0];
+                            return null;
+                        case "getAutoCommit":
+                            return autoCommit;
+                        case "close":
+                            closed = true;
+                            return null;
+                        case "isClosed":
+                            return closed;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,114 @@
+package aop.proxy;
+
+import aop.DataAccessException;
+import aop.StubUserHistoryDao;
+import aop.domain.User;
+import aop.repository.UserDao;
+import aop.repository.UserHistoryDao;
+import aop.service.AppUserService;
+import aop.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class TransactionProxyGeneratorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private UserHistoryDao userHistoryDao;
+
+    @Autowired
+    private StubUserHistoryDao stubUserHistoryDao;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager platformTransactionManager;
+
+    private final TransactionProxyGenerator generator = new TransactionProxyGenerator();
+
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from user_history");
+        jdbcTemplate.update("delete from users");
+        userDao.insert(new User("gugu", "password", "hkkang@woowahan.com"));
+        userId = userDao.findByAccount("gugu").getId();
+    }
+
+    @Test
+    void commit() {
+        final var userService = generator.createProxy(UserService.class,
+                new AppUserService(userDao, userHistoryDao), platformTransactionManager);
+
+        userService.changePassword(userId, "qqqqq", "gugu");
+
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("qqqqq");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from user_history", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void rollback() {
+        final var userService = generator.createProxy(UserService.class,
+                new AppUserService(userDao, stubUserHistoryDao), platformTransactionManager);
+
+        assertThrows(DataAccessException.class, () -> userService.changePassword(userId, "newPassword", "gugu"));
+
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("password");
+    }
+
+    @Test
+    void rollbackFailureSuppressedByOriginalException() {
+        final var rollbackFailure = new IllegalStateException("rollback failed");
+        final var failingTransactionManager = new DataSourceTransactionManager(dataSource) {
+            @Override
+            protected void doRollback(final DefaultTransactionStatus status) {
+                throw rollbackFailure;
+            }
+        };
+        final var userService = generator.createProxy(UserService.class,
+                new AppUserService(userDao, stubUserHistoryDao), failingTransactionManager);
+
+        final var actual = assertThrows(DataAccessException.class, () -> userService.changePassword(userId, "newPassword", "gugu"));
+
+        assertThat(actual.getSuppressed()).containsExactly(rollbackFailure);
+    }
+
+    @Test
+    void generatedClassIsNotJdkProxy() {
+        final var userService = generator.createProxy(UserService.class,
+                new AppUserService(userDao, userHistoryDao), platformTransactionManager);
+
+        assertThat(Proxy.isProxyClass(userService.getClass())).isFalse();
+        assertThat(userService).isInstanceOf(UserService.class);
+    }
+
+    @Test
+    void reuseGeneratedClassForSameTargetClass() {
+        final var first = generator.createProxy(UserService.class,
+                new AppUserService(userDao, userHistoryDao), platformTransactionManager);
+        final var second = generator.createProxy(UserService.class,
+                new AppUserService(userDao, stubUserHistoryDao), platformTransactionManager);
+
+        assertThat(first.getClass()).isSameAs(second.getClass());
+    }
+}
@@ -0,0 +1,136 @@
+package aop.repository;
+
+import aop.domain.User;
+import aop.domain.UserHistory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboxUserHistoryDaoTest {
+
+    private static final int BATCH_SIZE = 2;
+    private static final long MAX_PENDING = 3;
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private UserHistoryOutboxRelay relay;
+    private OutboxUserHistoryDao userHistoryDao;
+    private TransactionTemplate transactionTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        final var transactionManager = new DataSourceTransactionManager(dataSource);
+        relay = new UserHistoryOutboxRelay(jdbcTemplate, transactionManager, BATCH_SIZE, Duration.ofMillis(200), MAX_PENDING);
+        userHistoryDao = new OutboxUserHistoryDao(jdbcTemplate, relay);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        user = new User(1L, "gugu", "password", "hkkang@woowahan.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void relayedToUserHistoryAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                userHistoryDao.log(new UserHistory(user, "gugu"));
+            }
+        });
+
+        assertThat(count("user_history_outbox")).isEqualTo(3);
+        assertThat(count("user_history")).isZero();
+
+        relay.drain();
+
+        assertThat(count("user_history_outbox")).isZero();
+        assertThat(count("user_history")).isEqualTo(3);
+        assertThat(relay.getRelayedCount()).isEqualTo(3);
+        assertThat(relay.getBatchCount()).isEqualTo(2);
+        assertThat(relay.getPending()).isZero();
+    }
+
+    @Test
+    void nothingRelayedAfterRollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userHistoryDao.log(new UserHistory(user, "gugu"));
+            status.setRollbackOnly();
+        });
+
+        relay.drain();
+
+        assertThat(count("user_history_outbox")).isZero();
+        assertThat(count("user_history")).isZero();
+        assertThat(relay.getRelayedCount()).isZero();
+    }
+
+    @Test
+    void rejectedWhileBackedUp() {
+        for (int i = 0; i <= MAX_PENDING; i++) {
+            userHistoryDao.log(new UserHistory(user, "gugu"));
+        }
+        relay.refreshStatus();
+
+        assertThat(relay.isBackedUp()).isTrue();
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into users (account, password, email) values (?, ?, ?)", "gugu", "password", "hkkang@woowahan.com");
+            userHistoryDao.log(new UserHistory(user, "gugu"));
+        })).isInstanceOf(TransientDataAccessResourceException.class);
+
+        assertThat(count("users")).isZero();
+        assertThat(count("user_history")).isZero();
+        assertThat(count("user_history_outbox")).isEqualTo(MAX_PENDING + 1);
+    }
+
+    @Test
+    void acceptedAgainOnceRelayCatchesUp() {
+        for (int i = 0; i <= MAX_PENDING; i++) {
+            userHistoryDao.log(new UserHistory(user, "gugu"));
+        }
+        relay.refreshStatus();
+
+        relay.drain();
+        userHistoryDao.log(new UserHistory(user, "gugu"));
+
+        assertThat(relay.isBackedUp()).isFalse();
+        assertThat(count("user_history")).isEqualTo(MAX_PENDING + 1);
+        assertThat(count("user_history_outbox")).isEqualTo(1);
+    }
+
+    @Test
+    void statusRefreshedWhenRelayFails() {
+        for (int i = 0; i <= MAX_PENDING; i++) {
+            userHistoryDao.log(new UserHistory(user, "gugu"));
+        }
+        jdbcTemplate.execute("drop table user_history");
+
+        relay.drain();
+
+        assertThat(relay.getPending()).isEqualTo(MAX_PENDING + 1);
+        assertThat(relay.isBackedUp()).isTrue();
+    }
+
+    private long count(final String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+}
@@ -0,0 +1,107 @@
+package aop.repository;
+
+import aop.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserDaoTest {
+
+    private EmbeddedDatabase dataSource;
+    private UserDao userDao;
+    private TransactionTemplate transactionTemplate;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        userDao = new UserDao(new JdbcTemplate(dataSource));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        userDao.insert(new User("gugu", "password", "hkkang@woowahan.com"));
+        userId = userDao.findByAccount("gugu").getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void returnSameUserInTransaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            final var first = userDao.findById(userId);
+            final var second = userDao.findById(userId);
+            final var byAccount = userDao.findByAccount("gugu");
+
+            assertThat(second).isSameAs(first);
+            assertThat(byAccount).isSameAs(first);
+        });
+
+        assertThat(userDao.getIdentityMapMisses()).isEqualTo(1);
+        assertThat(userDao.getIdentityMapHits()).isEqualTo(2);
+    }
+
+    @Test
+    void notCachedOutsideTransaction() {
+        final var first = userDao.findById(userId);
+        final var second = userDao.findById(userId);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(userDao.getIdentityMapHits() + userDao.getIdentityMapMisses()).isZero();
+    }
+
+    @Test
+    void clearedAfterRollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            final var user = userDao.findById(userId);
+            user.changePassword("newPassword");
+            userDao.update(user);
+            assertThat(userDao.findById(userId).getPassword()).isEqualTo("newPassword");
+            status.setRollbackOnly();
+        });
+
+        final var actual = transactionTemplate.execute(status -> userDao.findById(userId));
+
+        assertThat(actual.getPassword()).isEqualTo("password");
+    }
+
+    @Test
+    void oldAccountForgottenAfterAccountChange() {
+        transactionTemplate.executeWithoutResult(status -> {
+            final var user = userDao.findByAccount("gugu");
+            userDao.update(new User(user.getId(), "brown", user.getPassword(), user.getEmail()));
+
+            assertThat(userDao.findByAccount("brown").getId()).isEqualTo(userId);
+            assertThatThrownBy(() -> userDao.findByAccount("gugu")).isInstanceOf(EmptyResultDataAccessException.class);
+        });
+    }
+
+    @Test
+    void notSharedWithRequiresNew() {
+        final var requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            final var outer = userDao.findById(userId);
+            final var inner = requiresNew.execute(innerStatus -> userDao.findById(userId));
+
+            assertThat(inner).isNotSameAs(outer);
+            assertThat(userDao.findById(userId)).isSameAs(outer);
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package aop.repository;
+
+import aop.domain.User;
+import aop.domain.UserHistory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserHistoryDaoTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private UserHistoryDao userHistoryDao;
+    private TransactionTemplate transactionTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        userHistoryDao = new UserHistoryDao(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        user = new User(1L, "gugu", "password", "hkkang@woowahan.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void flushedOnCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userHistoryDao.log(new UserHistory(user, "gugu"));
+            userHistoryDao.log(new UserHistory(user, "gugu"));
+
+            assertThat(countHistories()).isZero();
+        });
+
+        assertThat(countHistories()).isEqualTo(2);
+    }
+
+    @Test
+    void droppedOnRollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userHistoryDao.log(new UserHistory(user, "gugu"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(countHistories()).isZero();
+    }
+
+    @Test
+    void insertedImmediatelyOutsideTransaction() {
+        userHistoryDao.log(new UserHistory(user, "gugu"));
+
+        assertThat(countHistories()).isEqualTo(1);
+    }
+
+    @Test
+    void insertFailureSurfacesAtCommit() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into users (account, password, email) values (?, ?, ?)", "gugu", "password", "hkkang@woowahan.com");
+            assertThatCode(() -> userHistoryDao.log(new UserHistory(user, null))).doesNotThrowAnyException();
+        })).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from users", Long.class)).isZero();
+        assertThat(countHistories()).isZero();
+    }
+
+    private long countHistories() {
+        return jdbcTemplate.queryForObject("select count(*) from user_history", Long.class);
+    }
+}
@@ -0,0 +1,133 @@
+package aop.service;
+
+import aop.DataAccessException;
+import aop.domain.User;
+import aop.domain.UserHistory;
+import aop.repository.UserDao;
+import aop.repository.UserHistoryDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * TransactionalAppUserService는 컴파일할 때 TransactionalProcessor가 생성한다.
+ */
+class TransactionalAppUserServiceTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private RecordingUserDao userDao;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        userDao = new RecordingUserDao(jdbcTemplate);
+        userDao.insert(new User("gugu", "password", "hkkang@woowahan.com"));
+        userId = userDao.findByAccount("gugu").getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void changePassword() {
+        final var userService = new TransactionalAppUserService(transactionManager, userDao, new UserHistoryDao(jdbcTemplate));
+
+        userService.changePassword(userId, "qqqqq", "gugu");
+
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("qqqqq");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from user_history", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void rollback() {
+        final var userService = new TransactionalAppUserService(transactionManager, userDao, new UserHistoryDao(jdbcTemplate) {
+            @Override
+            public void log(final UserHistory userHistory) {
+                throw new DataAccessException();
+            }
+        });
+
+        assertThrows(DataAccessException.class, () -> userService.changePassword(userId, "newPassword", "gugu"));
+
+        assertThat(userService.findById(userId).getPassword()).isEqualTo("password");
+    }
+
+    @Test
+    void rollbackFailureSuppressedByOriginalException() {
+        final var rollbackFailure = new IllegalStateException("rollback failed");
+        final var failingTransactionManager = new DataSourceTransactionManager(dataSource) {
+            @Override
+            protected void doRollback(final DefaultTransactionStatus status) {
+                throw rollbackFailure;
+            }
+        };
+        final var original = new DataAccessException();
+        final var userService = new TransactionalAppUserService(failingTransactionManager, userDao, new UserHistoryDao(jdbcTemplate) {
+            @Override
+            public void log(final UserHistory userHistory) {
+                throw original;
+            }
+        });
+
+        final var actual = assertThrows(DataAccessException.class, () -> userService.changePassword(userId, "newPassword", "gugu"));
+
+        assertThat(actual).isSameAs(original);
+        assertThat(actual.getSuppressed()).containsExactly(rollbackFailure);
+    }
+
+    /**
+     * changePassword 안에서 호출한 findById도 오버라이드한 메서드를 거치므로
+     * 바깥 읽기-쓰기 트랜잭션에 참여한다. 직접 호출하면 읽기 전용으로 실행된다.
+     */
+    @Test
+    void selfInvocation() {
+        final var userService = new TransactionalAppUserService(transactionManager, userDao, new UserHistoryDao(jdbcTemplate));
+
+        userService.findById(userId);
+        userService.changePassword(userId, "qqqqq", "gugu");
+
+        assertThat(userDao.readOnlyFlags).containsExactly(true, false);
+        assertThat(userDao.actualTransactionFlags).containsExactly(false, true);
+    }
+
+    private static class RecordingUserDao extends UserDao {
+
+        private final List<Boolean> readOnlyFlags = new ArrayList<>();
+        private final List<Boolean> actualTransactionFlags = new ArrayList<>();
+
+        RecordingUserDao(final JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate);
+        }
+
+        @Override
+        public User findById(final Long id) {
+            readOnlyFlags.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            actualTransactionFlags.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return super.findById(id);
+        }
+    }
+}
@@ -13,7 +13,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -33,6 +38,9 @@ class Stage0Test {
     @Autowired
     private StubUserHistoryDao stubUserHistoryDao;
 
+    @Autowired
+    private DataSource dataSource;
+
     @Autowired
     private PlatformTransactionManager platformTransactionManager;
 
@@ -45,7 +53,7 @@ class Stage0Test {
     @Test
     void testChangePassword() {
         final var appUserService = new AppUserService(userDao, userHistoryDao);
-        final UserService userService = null;
+        final var userService = createProxy(appUserService);
 
         final var newPassword = "qqqqq";
         final var createBy = "gugu";
@@ -59,7 +67,7 @@ class Stage0Test {
     @Test
     void testTransactionRollback() {
         final var appUserService = new AppUserService(userDao, stubUserHistoryDao);
-        final UserService userService = null;
+        final var userService = createProxy(appUserService);
 
         final var newPassword = "newPassword";
         final var createBy = "gugu";
@@ -70,4 +78,32 @@ class Stage0Test {
 
         assertThat(actual.getPassword()).isNotEqualTo(newPassword);
     }
+
+    @Test
+    void testRollbackFailureSuppressed() {
+        final var rollbackFailure = new IllegalStateException("rollback failed");
+        final var failingTransactionManager = new DataSourceTransactionManager(dataSource) {
+            @Override
+            protected void doRollback(final DefaultTransactionStatus status) {
+                throw rollbackFailure;
+            }
+        };
+        final var userService = createProxy(new AppUserService(userDao, stubUserHistoryDao), failingTransactionManager);
+
+        final var actual = assertThrows(DataAccessException.class,
+                () -> userService.changePassword(1L, "newPassword", "gugu"));
+
+        assertThat(actual.getSuppressed()).containsExactly(rollbackFailure);
+    }
+
+    private UserService createProxy(final UserService target) {
+        return createProxy(target, platformTransactionManager);
+    }
+
+    private UserService createProxy(final UserService target, final PlatformTransactionManager transactionManager) {
+        return (UserService) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class[]{UserService.class},
+                new TransactionHandler(target, transactionManager));
+    }
 }
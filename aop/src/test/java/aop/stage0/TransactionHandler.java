@@ -1,15 +1,95 @@
 package aop.stage0;
 
+import aop.TransactionAttribute;
+import aop.TransactionAttributeSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TransactionHandler implements InvocationHandler {
 
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Object target;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionAttributeSource transactionAttributeSource;
+    private final Map<Method, MethodInvocation> invocations = new ConcurrentHashMap<>();
+
+    public TransactionHandler(final Object target, final PlatformTransactionManager transactionManager) {
+        this(target, transactionManager, new TransactionAttributeSource());
+    }
+
+    public TransactionHandler(final Object target, final PlatformTransactionManager transactionManager,
+                              final TransactionAttributeSource transactionAttributeSource) {
+        this.target = target;
+        this.transactionManager = transactionManager;
+        this.transactionAttributeSource = transactionAttributeSource;
+    }
+
     /**
      * @Transactional 어노테이션이 존재하는 메서드만 트랜잭션 기능을 적용하도록 만들어보자.
+     *
+     * 어노테이션 조회와 리플렉션 접근 검사는 메서드마다 처음 호출될 때 한 번만 하고,
+     * 이후에는 캐싱한 트랜잭션 속성과 대상 객체에 바인딩한 MethodHandle을 그대로 사용한다.
      */
     @Override
     public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
-        return null;
+        final var invocation = invocations.computeIfAbsent(method, this::createInvocation);
+        final var arguments = args == null ? NO_ARGS : args;
+        if (invocation.attribute == null) {
+            return invocation.handle.invokeExact(arguments);
+        }
+
+        final TransactionStatus status = transactionManager.getTransaction(invocation.attribute.getDefinition());
+        final Object result;
+        try {
+            result = invocation.handle.invokeExact(arguments);
+        } catch (Throwable e) {
+            // 롤백, 커밋이 실패해도 대상 메서드의 예외를 던지고, 실패한 예외는 suppressed로 붙인다.
+            try {
+                if (invocation.attribute.rollbackOn(e)) {
+                    transactionManager.rollback(status);
+                } else {
+                    transactionManager.commit(status);
+                }
+            } catch (Throwable completionFailure) {
+                e.addSuppressed(completionFailure);
+            }
+            throw e;
+        }
+        transactionManager.commit(status);
+        return result;
+    }
+
+    private MethodInvocation createInvocation(final Method method) {
+        final var attribute = transactionAttributeSource.getTransactionAttribute(method, target.getClass());
+        try {
+            final var handle = MethodHandles.publicLookup()
+                    .unreflect(method)
+                    .bindTo(target)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new MethodInvocation(attribute, handle);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access " + method, e);
+        }
+    }
+
+    private static class MethodInvocation {
+
+        private final TransactionAttribute attribute;
+        private final MethodHandle handle;
+
+        MethodInvocation(final TransactionAttribute attribute, final MethodHandle handle) {
+            this.attribute = attribute;
+            this.handle = handle;
+        }
     }
 }
@@ -9,10 +9,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactoryBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
 
+import javax.sql.DataSource;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -30,6 +34,9 @@ class Stage1Test {
     @Autowired
     private StubUserHistoryDao stubUserHistoryDao;
 
+    @Autowired
+    private DataSource dataSource;
+
     @Autowired
     private PlatformTransactionManager platformTransactionManager;
 
@@ -41,7 +48,7 @@ class Stage1Test {
 
     @Test
     void testChangePassword() {
-        final UserService userService = null;
+        final var userService = createProxy(userHistoryDao);
 
         final var newPassword = "qqqqq";
         final var createBy = "gugu";
@@ -54,7 +61,7 @@ class Stage1Test {
 
     @Test
     void testTransactionRollback() {
-        final UserService userService = null;
+        final var userService = createProxy(stubUserHistoryDao);
 
         final var newPassword = "newPassword";
         final var createBy = "gugu";
@@ -65,4 +72,34 @@ class Stage1Test {
 
         assertThat(actual.getPassword()).isNotEqualTo(newPassword);
     }
+
+    @Test
+    void testRollbackFailureSuppressed() {
+        final var rollbackFailure = new IllegalStateException("rollback failed");
+        final var failingTransactionManager = new DataSourceTransactionManager(dataSource) {
+            @Override
+            protected void doRollback(final DefaultTransactionStatus status) {
+                throw rollbackFailure;
+            }
+        };
+        final var userService = createProxy(stubUserHistoryDao, failingTransactionManager);
+
+        final var actual = assertThrows(DataAccessException.class,
+                () -> userService.changePassword(1L, "newPassword", "gugu"));
+
+        assertThat(actual.getSuppressed()).containsExactly(rollbackFailure);
+    }
+
+    private UserService createProxy(final UserHistoryDao userHistoryDao) {
+        return createProxy(userHistoryDao, platformTransactionManager);
+    }
+
+    private UserService createProxy(final UserHistoryDao userHistoryDao, final PlatformTransactionManager transactionManager) {
+        final var proxyFactoryBean = new ProxyFactoryBean();
+        proxyFactoryBean.setTarget(new UserService(userDao, userHistoryDao));
+        proxyFactoryBean.addAdvisor(new TransactionAdvisor(transactionManager));
+        proxyFactoryBean.setProxyTargetClass(true);
+        proxyFactoryBean.setFrozen(true);
+        return (UserService) proxyFactoryBean.getObject();
+    }
 }
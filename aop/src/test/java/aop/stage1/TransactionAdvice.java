@@ -1,15 +1,55 @@
 package aop.stage1;
 
+import aop.TransactionAttributeSource;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * 어드바이스(advice). 부가기능을 담고 있는 클래스
  */
 public class TransactionAdvice  implements MethodInterceptor {
 
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionAttributeSource transactionAttributeSource;
+
+    public TransactionAdvice(final PlatformTransactionManager transactionManager) {
+        this(transactionManager, new TransactionAttributeSource());
+    }
+
+    public TransactionAdvice(final PlatformTransactionManager transactionManager,
+                             final TransactionAttributeSource transactionAttributeSource) {
+        this.transactionManager = transactionManager;
+        this.transactionAttributeSource = transactionAttributeSource;
+    }
+
     @Override
     public Object invoke(final MethodInvocation invocation) throws Throwable {
-        return null;
+        final var targetClass = invocation.getThis() == null ? null : AopUtils.getTargetClass(invocation.getThis());
+        final var attribute = transactionAttributeSource.getTransactionAttribute(invocation.getMethod(), targetClass);
+        if (attribute == null) {
+            return invocation.proceed();
+        }
+
+        final var status = transactionManager.getTransaction(attribute.getDefinition());
+        final Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            // 롤백, 커밋이 실패해도 대상 메서드의 예외를 던지고, 실패한 예외는 suppressed로 붙인다.
+            try {
+                if (attribute.rollbackOn(e)) {
+                    transactionManager.rollback(status);
+                } else {
+                    transactionManager.commit(status);
+                }
+            } catch (Throwable completionFailure) {
+                e.addSuppressed(completionFailure);
+            }
+            throw e;
+        }
+        transactionManager.commit(status);
+        return result;
     }
 }
@@ -1,23 +1,44 @@
 package aop.stage1;
 
+import aop.TransactionAttributeSource;
 import org.aopalliance.aop.Advice;
 import org.springframework.aop.Pointcut;
 import org.springframework.aop.PointcutAdvisor;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * 어드바이저(advisor). 포인트컷과 어드바이스를 하나씩 갖고 있는 객체.
  * AOP의 애스팩트(aspect)에 해당되는 클래스다.
+ *
+ * 포인트컷과 어드바이스가 같은 TransactionAttributeSource를 사용하므로
+ * 프록시를 만들 때 찾은 트랜잭션 속성을 호출할 때 다시 찾지 않는다.
+ *
+ * 프록시 설정을 frozen으로 만들면 CGLIB 프록시가 메서드마다 어드바이스 체인을 미리 계산해두고,
+ * 어드바이스가 없는 메서드는 MethodInvocation을 만들지 않고 대상 객체를 바로 호출한다.
  */
 public class TransactionAdvisor implements PointcutAdvisor {
 
+    private final TransactionPointcut pointcut;
+    private final TransactionAdvice advice;
+
+    public TransactionAdvisor(final PlatformTransactionManager transactionManager) {
+        this(transactionManager, new TransactionAttributeSource());
+    }
+
+    public TransactionAdvisor(final PlatformTransactionManager transactionManager,
+                              final TransactionAttributeSource transactionAttributeSource) {
+        this.pointcut = new TransactionPointcut(transactionAttributeSource);
+        this.advice = new TransactionAdvice(transactionManager, transactionAttributeSource);
+    }
+
     @Override
     public Pointcut getPointcut() {
-        return null;
+        return pointcut;
     }
 
     @Override
     public Advice getAdvice() {
-        return null;
+        return advice;
     }
 
     @Override
@@ -1,19 +1,60 @@
 package aop.stage1;
 
+import aop.TransactionAttributeSource;
+import aop.Transactional;
 import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 포인트컷(pointcut). 어드바이스를 적용할 조인 포인트를 선별하는 클래스.
  * TransactionPointcut 클래스는 메서드를 대상으로 조인 포인트를 찾는다.
  *
  * 조인 포인트(join point). 어드바이스가 적용될 위치
+ *
+ * 프록시를 만들 때 모든 빈의 모든 메서드에 대해 matches를 호출하므로 결과를 캐싱한다.
+ * - 클래스 필터 : @Transactional 메서드가 하나도 없는 클래스는 메서드를 확인하지 않고 제외한다.
+ * - 메서드 매처 : TransactionAttributeSource가 (메서드, 클래스)마다 한 번만 어노테이션을 찾는다.
  */
 public class TransactionPointcut extends StaticMethodMatcherPointcut {
 
+    private final TransactionAttributeSource transactionAttributeSource;
+    private final Map<Class<?>, Boolean> candidateClasses = new ConcurrentHashMap<>();
+
+    public TransactionPointcut() {
+        this(new TransactionAttributeSource());
+    }
+
+    public TransactionPointcut(final TransactionAttributeSource transactionAttributeSource) {
+        this.transactionAttributeSource = transactionAttributeSource;
+        setClassFilter(this::isCandidateClass);
+    }
+
     @Override
     public boolean matches(final Method method, final Class<?> targetClass) {
+        return transactionAttributeSource.getTransactionAttribute(method, targetClass) != null;
+    }
+
+    private boolean isCandidateClass(final Class<?> targetClass) {
+        return candidateClasses.computeIfAbsent(targetClass, TransactionPointcut::hasTransactionalMethod);
+    }
+
+    private static boolean hasTransactionalMethod(final Class<?> targetClass) {
+        for (final var method : targetClass.getMethods()) {
+            if (method.isAnnotationPresent(Transactional.class)) {
+                return true;
+            }
+        }
+        for (final var interfaceType : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            for (final var method : interfaceType.getMethods()) {
+                if (method.isAnnotationPresent(Transactional.class)) {
+                    return true;
+                }
+            }
+        }
         return false;
     }
 }
@@ -1,8 +1,28 @@
 package aop.stage2;
 
+import aop.stage1.TransactionAdvisor;
+import org.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @Configuration
 public class AopConfig {
 
+    @Bean
+    public TransactionAdvisor transactionAdvisor(final PlatformTransactionManager transactionManager) {
+        return new TransactionAdvisor(transactionManager);
+    }
+
+    /**
+     * 프록시를 만든 뒤에는 어드바이저를 바꾸지 않으므로 frozen으로 설정해서
+     * 메서드별 어드바이스 체인을 프록시 생성 시점에 고정한다.
+     */
+    @Bean
+    public static DefaultAdvisorAutoProxyCreator advisorAutoProxyCreator() {
+        final var autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+        autoProxyCreator.setProxyTargetClass(true);
+        autoProxyCreator.setFrozen(true);
+        return autoProxyCreator;
+    }
 }
@@ -0,0 +1,120 @@
+package aop.timing;
+
+import aop.domain.User;
+import aop.repository.UserDao;
+import aop.repository.UserHistoryDao;
+import aop.repository.UserHistoryOutboxRelay;
+import aop.service.AppUserService;
+import aop.service.UserService;
+import aop.stage1.TransactionAdvisor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.ResourceTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimedAdviceTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        final var userDao = new UserDao(jdbcTemplate);
+        userDao.insert(new User("gugu", "password", "hkkang@woowahan.com"));
+        userId = userDao.findByAccount("gugu").getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void recordTransactionAndTargetTimeSeparately() {
+        final var registry = new MethodTimerRegistry(Duration.ofMinutes(1));
+        final var userService = createUserService(new TimedAdvice(registry));
+
+        userService.changePassword(userId, "qqqqq", "gugu");
+
+        final var changePassword = registry.getTimer("AppUserService.changePassword");
+        final var findById = registry.getTimer("UserDao.findById");
+        assertThat(changePassword.getCount()).isEqualTo(1);
+        assertThat(changePassword.getTransaction().getMaxValue()).isPositive();
+        assertThat(changePassword.getTarget().getMaxValue()).isPositive();
+        assertThat(findById.getCount()).isEqualTo(1);
+        assertThat(findById.getTransaction().getMaxValue()).isZero();
+        assertThat(registry.getSlowCallCount()).isZero();
+    }
+
+    @Test
+    void logSlowCallWithNestedCalls() {
+        final var registry = new MethodTimerRegistry(Duration.ZERO);
+        final List<String> traces = new ArrayList<>();
+        final var userService = createUserService(new TimedAdvice(registry, traces::add));
+
+        userService.changePassword(userId, "qqqqq", "gugu");
+
+        assertThat(traces).hasSize(1);
+        assertThat(traces.get(0))
+                .contains("\nAppUserService.changePassword ")
+                .contains("\n  UserDao.findById ")
+                .contains("\n  UserDao.update ")
+                .contains("\n  UserHistoryDao.log ");
+        assertThat(registry.getSlowCallCount()).isEqualTo(1);
+    }
+
+    @Test
+    void applyOnlyToTimedClasses() {
+        final var advisor = new TimedAdvisor(new MethodTimerRegistry(Duration.ofMinutes(1)));
+
+        assertThat(AopUtils.canApply(advisor, UserDao.class)).isTrue();
+        assertThat(AopUtils.canApply(advisor, UserHistoryOutboxRelay.class)).isFalse();
+    }
+
+    @Test
+    void timedTransactionManagerKeepsInterfaces() {
+        final var transactionManager = new TimedTransactionManagerPostProcessor()
+                .postProcessAfterInitialization(new DataSourceTransactionManager(dataSource), "transactionManager");
+
+        assertThat(transactionManager).isInstanceOf(ResourceTransactionManager.class);
+        assertThat(((ResourceTransactionManager) transactionManager).getResourceFactory()).isSameAs(dataSource);
+    }
+
+    private UserService createUserService(final TimedAdvice timedAdvice) {
+        final var transactionManager = TimedTransactionManagerPostProcessor.timed(new DataSourceTransactionManager(dataSource));
+        final var userDao = (UserDao) proxy(new UserDao(jdbcTemplate), timedAdvice);
+        final var userHistoryDao = (UserHistoryDao) proxy(new UserHistoryDao(jdbcTemplate), timedAdvice);
+
+        final var proxyFactory = new ProxyFactory(new AppUserService(userDao, userHistoryDao));
+        proxyFactory.addAdvice(timedAdvice);
+        proxyFactory.addAdvisor(new TransactionAdvisor(transactionManager));
+        return (UserService) proxyFactory.getProxy();
+    }
+
+    private static Object proxy(final Object target, final TimedAdvice timedAdvice) {
+        final var proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(timedAdvice);
+        return proxyFactory.getProxy();
+    }
+}
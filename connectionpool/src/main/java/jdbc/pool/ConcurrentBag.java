@@ -0,0 +1,172 @@
+package jdbc.pool;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * 락 없이 PoolEntry를 빌려주고 돌려받는 컬렉션. HikariCP의 ConcurrentBag과 같은 방식이다.
+ *
+ * borrow는 아래 순서로 엔트리를 찾고, 엔트리 상태를 CAS로 NOT_IN_USE -> IN_USE로 바꾼 스레드만 가져간다.
+ * 1. 스레드 로컬 목록 : 이 스레드가 최근에 반납한 엔트리. 같은 스레드가 다시 빌리면 다른 스레드와 경쟁하지 않는다.
+ * 2. 공유 목록 : 모든 엔트리를 담은 CopyOnWriteArrayList. 읽기에는 락이 없다.
+ * 3. handoff 큐 : 비어 있는 엔트리가 없으면 풀에 커넥션을 추가해달라고 요청하고,
+ *    다른 스레드가 반납하거나 새로 추가한 엔트리를 SynchronousQueue로 직접 넘겨받는다.
+ *
+ * 스레드 로컬 목록의 엔트리는 공유 목록에도 있으므로 다른 스레드가 가져갈 수 있다. (CAS에 실패하면 다음 엔트리를 본다)
+ * 스레드 로컬 목록은 엔트리를 WeakReference로 들고 있다. 풀에서 제거한 엔트리를 다른 스레드의 목록이 붙잡고 있어도
+ * 커넥션과 함께 GC 될 수 있게 하기 위해서다. 오래 사는 스레드 풀의 스레드가 풀보다 오래 살아도 마찬가지다.
+ */
+final class ConcurrentBag {
+
+    private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+
+    private final CopyOnWriteArrayList<PoolEntry> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<WeakReference<PoolEntry>>> threadList = ThreadLocal.withInitial(() -> new ArrayList<>(MAX_THREAD_LOCAL_ENTRIES));
+    private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final IntConsumer addItemRequest;
+    private volatile boolean closed;
+
+    /**
+     * @param addItemRequest 빌려줄 엔트리가 없을 때 기다리는 스레드 수를 받아서 엔트리를 추가한다.
+     */
+    ConcurrentBag(final IntConsumer addItemRequest) {
+        this.addItemRequest = addItemRequest;
+    }
+
+    /**
+     * timeout 안에 엔트리를 빌리지 못하면 null을 돌려준다.
+     */
+    PoolEntry borrow(final long timeout, final TimeUnit timeUnit) throws InterruptedException {
+        final var list = threadList.get();
+        for (int i = list.size() - 1; i >= 0; i--) {
+            final var entry = list.remove(i).get();
+            if (entry != null && entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                return entry;
+            }
+        }
+
+        final var waiting = waiters.incrementAndGet();
+        try {
+            for (final var entry : sharedList) {
+                if (entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                    // 다른 스레드에게 넘겨줄 엔트리를 가로챘을 수 있으므로 기다리는 스레드가 있으면 추가를 요청한다.
+                    if (waiting > 1) {
+                        addItemRequest.accept(waiting - 1);
+                    }
+                    return entry;
+                }
+            }
+
+            addItemRequest.accept(waiting);
+
+            var remaining = timeUnit.toNanos(timeout);
+            do {
+                final var start = System.nanoTime();
+                final var entry = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (entry == null || entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                    return entry;
+                }
+                remaining -= System.nanoTime() - start;
+            } while (remaining > 10_000 && !closed);
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * 빌려간 엔트리를 반납한다. 기다리는 스레드가 있으면 handoff 큐로 바로 넘겨주고, 없으면 스레드 로컬 목록에 둔다.
+     */
+    void requite(final PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_NOT_IN_USE);
+
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (entry.getState() != PoolEntry.STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+                return;
+            }
+            if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+
+        final var list = threadList.get();
+        if (list.size() < MAX_THREAD_LOCAL_ENTRIES) {
+            list.add(new WeakReference<>(entry));
+        }
+    }
+
+    void add(final PoolEntry entry) {
+        if (closed) {
+            throw new IllegalStateException("ConcurrentBag has been closed");
+        }
+        sharedList.add(entry);
+
+        // 추가를 요청한 스레드가 공유 목록을 확인한 뒤에 추가되었을 수 있으므로 기다리는 스레드에게 넘겨준다.
+        while (waiters.get() > 0 && entry.getState() == PoolEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 빌렸거나 예약한 엔트리만 제거할 수 있다.
+     */
+    boolean remove(final PoolEntry entry) {
+        if (!entry.compareAndSet(PoolEntry.STATE_IN_USE, PoolEntry.STATE_REMOVED)
+                && !entry.compareAndSet(PoolEntry.STATE_RESERVED, PoolEntry.STATE_REMOVED)) {
+            return false;
+        }
+        sharedList.remove(entry);
+        threadList.get().removeIf(reference -> reference.get() == entry);
+        return true;
+    }
+
+    /**
+     * 사용하지 않는 엔트리를 다른 스레드가 빌려가지 못하게 예약한다. 유휴 커넥션을 정리할 때 사용한다.
+     */
+    boolean reserve(final PoolEntry entry) {
+        return entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_RESERVED);
+    }
+
+    List<PoolEntry> values(final int state) {
+        return sharedList.stream()
+                .filter(entry -> entry.getState() == state)
+                .collect(Collectors.toList());
+    }
+
+    List<PoolEntry> values() {
+        return new ArrayList<>(sharedList);
+    }
+
+    int getCount(final int state) {
+        var count = 0;
+        for (final var entry : sharedList) {
+            if (entry.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int size() {
+        return sharedList.size();
+    }
+
+    int getWaitingThreadCount() {
+        return waiters.get();
+    }
+
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,331 @@
+package jdbc.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 직접 구현한 커넥션 풀.
+ *
+ * - 커넥션은 ConcurrentBag으로 락 없이 빌려주고 돌려받는다.
+ * - 빌려줄 커넥션이 없으면 별도 스레드에서 maximumPoolSize까지 커넥션을 추가하고, connectionTimeout까지 기다린다.
+ * - aliveBypassWindow보다 오래 사용하지 않은 커넥션은 빌려주기 전에 Connection.isValid()로 확인하고, 실패하면 버린다.
+ * - housekeeper 스레드가 idleTimeout보다 오래 사용하지 않은 커넥션을 minimumIdle만 남기고 닫는다.
+ *
+ * 커넥션을 얻는 데 걸린 시간, 타임아웃, 검증 실패, 정리한 커넥션 수를 집계한다.
+ */
+public class ConnectionPool implements DataSource, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final PoolConfig config;
+    private final String poolName;
+    private final long connectionTimeoutNanos;
+    private final int validationTimeoutSeconds;
+    private final long aliveBypassWindowNanos;
+    private final long idleTimeoutNanos;
+
+    private final ConcurrentBag bag;
+    // 만들고 있는 커넥션까지 포함한 수. maximumPoolSize를 넘지 않도록 만들기 전에 자리를 먼저 차지한다.
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ThreadPoolExecutor addConnectionExecutor;
+    private final ScheduledExecutorService houseKeeper;
+    private volatile boolean closed;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder idleEvictions = new LongAdder();
+
+    public ConnectionPool(final PoolConfig config) {
+        config.validate();
+        this.config = config;
+        this.poolName = config.getPoolName();
+        this.connectionTimeoutNanos = config.getConnectionTimeout().toNanos();
+        this.validationTimeoutSeconds = (int) config.getValidationTimeout().toSeconds();
+        this.aliveBypassWindowNanos = config.getAliveBypassWindow().toNanos();
+        this.idleTimeoutNanos = config.getIdleTimeout().toNanos();
+
+        this.bag = new ConcurrentBag(this::addConnections);
+        // 대기열을 maximumPoolSize로 제한하고 넘치는 요청은 버린다. 이미 충분한 수의 추가 작업이 대기 중이다.
+        this.addConnectionExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(config.getMaximumPoolSize()),
+                daemonThreadFactory(poolName + " connection adder"),
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.houseKeeper = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory(poolName + " housekeeper"));
+        final var period = config.getHousekeepingPeriod().toMillis();
+        houseKeeper.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException(poolName + " - Pool has been closed");
+        }
+        final var start = System.nanoTime();
+        var remaining = connectionTimeoutNanos;
+        try {
+            do {
+                final var entry = bag.borrow(remaining, TimeUnit.NANOSECONDS);
+                if (entry == null) {
+                    break;
+                }
+                final var now = System.nanoTime();
+                if (now - entry.getLastAccessed() > aliveBypassWindowNanos && !isAlive(entry.getConnection())) {
+                    validationFailures.increment();
+                    discard(entry);
+                    remaining = connectionTimeoutNanos - (System.nanoTime() - start);
+                    continue;
+                }
+                final var elapsed = now - start;
+                acquired.increment();
+                acquireNanos.add(elapsed);
+                maxAcquireNanos.accumulate(elapsed);
+                return ProxyConnection.create(this, entry);
+            } while (remaining > 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(poolName + " - Interrupted during connection acquisition", e);
+        }
+
+        timeouts.increment();
+        throw new SQLTransientConnectionException(String.format(
+                "%s - Connection is not available, request timed out after %dms. (total=%d, active=%d, idle=%d, waiting=%d)",
+                poolName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                getTotalConnections(), getActiveConnections(), getIdleConnections(), getThreadsAwaitingConnection()));
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private boolean isAlive(final Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            log.debug("{} - Failed to validate connection {}", poolName, connection, e);
+            return false;
+        }
+    }
+
+    void release(final PoolEntry entry) {
+        if (closed) {
+            discard(entry);
+            return;
+        }
+        entry.setLastAccessed(System.nanoTime());
+        bag.requite(entry);
+    }
+
+    // 빌려줬거나 예약한 커넥션을 풀에서 빼고 닫는다.
+    void discard(final PoolEntry entry) {
+        if (!bag.remove(entry)) {
+            return;
+        }
+        totalConnections.decrementAndGet();
+        closeQuietly(entry.getConnection());
+    }
+
+    // ConcurrentBag이 빌려줄 커넥션이 없을 때 호출한다. 기다리는 스레드 수만큼 추가 작업을 요청한다.
+    private void addConnections(final int waiting) {
+        final var toAdd = waiting - addConnectionExecutor.getQueue().size();
+        for (int i = 0; i < toAdd; i++) {
+            addConnectionExecutor.execute(this::addConnection);
+        }
+    }
+
+    private void addConnection() {
+        if (closed || !reserveSlot()) {
+            return;
+        }
+        try {
+            final var connection = DriverManager.getConnection(config.getJdbcUrl(), config.getUsername(), config.getPassword());
+            created.increment();
+            bag.add(new PoolEntry(connection, System.nanoTime()));
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            log.warn("{} - Failed to add connection", poolName, e);
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            final var current = totalConnections.get();
+            if (current >= config.getMaximumPoolSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void evictIdleConnections() {
+        final var now = System.nanoTime();
+        var removable = bag.getCount(PoolEntry.STATE_NOT_IN_USE) - config.getMinimumIdle();
+        for (final var entry : bag.values(PoolEntry.STATE_NOT_IN_USE)) {
+            if (removable <= 0) {
+                return;
+            }
+            if (now - entry.getLastAccessed() > idleTimeoutNanos && bag.reserve(entry)) {
+                discard(entry);
+                idleEvictions.increment();
+                removable--;
+            }
+        }
+    }
+
+    /**
+     * 사용하지 않는 커넥션은 바로 닫고, 사용 중인 커넥션은 반납할 때 닫는다.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        bag.close();
+        houseKeeper.shutdownNow();
+        addConnectionExecutor.shutdownNow();
+        for (final var entry : bag.values()) {
+            if (bag.reserve(entry)) {
+                discard(entry);
+            }
+        }
+        log.info("{} - Closed. {}", poolName, this);
+    }
+
+    private static void closeQuietly(final Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close connection {}", connection, e);
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String name) {
+        return runnable -> {
+            final var thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getTotalConnections() {
+        return bag.size();
+    }
+
+    public int getActiveConnections() {
+        return bag.getCount(PoolEntry.STATE_IN_USE);
+    }
+
+    public int getIdleConnections() {
+        return bag.getCount(PoolEntry.STATE_NOT_IN_USE);
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return bag.getWaitingThreadCount();
+    }
+
+    public long getAcquiredCount() {
+        return acquired.sum();
+    }
+
+    public long getAverageAcquireNanos() {
+        final var count = acquired.sum();
+        return count == 0 ? 0 : acquireNanos.sum() / count;
+    }
+
+    public long getMaxAcquireNanos() {
+        return maxAcquireNanos.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    public long getValidationFailureCount() {
+        return validationFailures.sum();
+    }
+
+    public long getIdleEvictionCount() {
+        return idleEvictions.sum();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(final PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(final int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return (int) TimeUnit.NANOSECONDS.toSeconds(connectionTimeoutNanos);
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        throw new SQLException("Wrapped DataSource is not an instance of " + iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool(%s, total=%d, active=%d, idle=%d, waiting=%d, acquired=%d, timeouts=%d, created=%d)",
+                poolName, getTotalConnections(), getActiveConnections(), getIdleConnections(),
+                getThreadsAwaitingConnection(), getAcquiredCount(), getTimeoutCount(), getCreatedCount());
+    }
+}
@@ -0,0 +1,139 @@
+package jdbc.pool;
+
+import java.time.Duration;
+
+/**
+ * ConnectionPool 설정. HikariConfig처럼 setter로 설정한다.
+ */
+public class PoolConfig {
+
+    private String poolName = "pool";
+    private String jdbcUrl;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    private int minimumIdle = 0;
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+    private Duration validationTimeout = Duration.ofSeconds(5);
+    private Duration aliveBypassWindow = Duration.ofMillis(500);
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Duration housekeepingPeriod = Duration.ofSeconds(30);
+
+    void validate() {
+        if (jdbcUrl == null) {
+            throw new IllegalArgumentException("jdbcUrl is required");
+        }
+        if (maximumPoolSize < 1) {
+            throw new IllegalArgumentException("maximumPoolSize must be positive: " + maximumPoolSize);
+        }
+        if (minimumIdle < 0 || minimumIdle > maximumPoolSize) {
+            throw new IllegalArgumentException("minimumIdle must be between 0 and maximumPoolSize: " + minimumIdle);
+        }
+        if (validationTimeout.compareTo(Duration.ofSeconds(1)) < 0) {
+            throw new IllegalArgumentException("validationTimeout must be at least 1 second: " + validationTimeout);
+        }
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(final String poolName) {
+        this.poolName = poolName;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public void setJdbcUrl(final String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(final String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(final String password) {
+        this.password = password;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(final int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    /**
+     * 유휴 커넥션을 정리할 때 남겨둘 최소 개수. 미리 채워두지는 않는다.
+     */
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(final int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    /**
+     * getConnection()이 커넥션을 기다리는 최대 시간. 넘으면 SQLTransientConnectionException이 발생한다.
+     */
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(final Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    /**
+     * Connection.isValid()에 넘기는 시간. isValid는 초 단위이므로 1초보다 짧을 수 없다.
+     */
+    public Duration getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    public void setValidationTimeout(final Duration validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    /**
+     * 마지막으로 사용한 뒤 이 시간이 지나지 않은 커넥션은 빌려줄 때 isValid()로 확인하지 않는다.
+     */
+    public Duration getAliveBypassWindow() {
+        return aliveBypassWindow;
+    }
+
+    public void setAliveBypassWindow(final Duration aliveBypassWindow) {
+        this.aliveBypassWindow = aliveBypassWindow;
+    }
+
+    /**
+     * 이 시간보다 오래 사용하지 않은 커넥션은 minimumIdle을 남기고 닫는다.
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(final Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getHousekeepingPeriod() {
+        return housekeepingPeriod;
+    }
+
+    public void setHousekeepingPeriod(final Duration housekeepingPeriod) {
+        this.housekeepingPeriod = housekeepingPeriod;
+    }
+}
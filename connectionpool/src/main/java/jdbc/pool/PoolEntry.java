@@ -0,0 +1,53 @@
+package jdbc.pool;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 풀이 관리하는 물리 커넥션 하나와 상태.
+ * 상태는 CAS로만 바꾸므로 여러 스레드가 같은 엔트리를 동시에 빌려가지 않는다.
+ */
+final class PoolEntry {
+
+    static final int STATE_NOT_IN_USE = 0;
+    static final int STATE_IN_USE = 1;
+    static final int STATE_REMOVED = -1;
+    static final int STATE_RESERVED = -2;
+
+    private static final AtomicIntegerFieldUpdater<PoolEntry> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(PoolEntry.class, "state");
+
+    private final Connection connection;
+    private volatile int state = STATE_NOT_IN_USE;
+    private volatile long lastAccessed;
+
+    PoolEntry(final Connection connection, final long now) {
+        this.connection = connection;
+        this.lastAccessed = now;
+    }
+
+    boolean compareAndSet(final int expect, final int update) {
+        return STATE.compareAndSet(this, expect, update);
+    }
+
+    int getState() {
+        return state;
+    }
+
+    // 빌려준 스레드만 반납하므로 CAS 없이 바꾼다.
+    void setState(final int update) {
+        state = update;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    long getLastAccessed() {
+        return lastAccessed;
+    }
+
+    void setLastAccessed(final long lastAccessed) {
+        this.lastAccessed = lastAccessed;
+    }
+}
@@ -0,0 +1,173 @@
+package jdbc.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 풀에서 빌려준 커넥션. close()를 호출하면 물리 커넥션을 닫지 않고 풀에 반납한다.
+ * 반납할 때 빌려간 쪽에서 바꾼 autoCommit, readOnly, 격리 수준을 원래대로 되돌리고,
+ * 커밋하지 않은 트랜잭션은 롤백해서 다음에 빌려가는 쪽에 영향을 주지 않게 한다.
+ *
+ * 만든 Statement는 ProxyStatement로 감싸서 기억해뒀다가 반납할 때 닫지 않은 것을 닫는다.
+ * 닫지 않은 Statement와 ResultSet이 다음에 빌려가는 쪽까지 남아서 커서와 메모리를 차지하지 않게 하기 위해서다.
+ */
+final class ProxyConnection implements InvocationHandler {
+
+    private final ConnectionPool pool;
+    private final PoolEntry entry;
+    private final Connection delegate;
+    private final List<ProxyStatement> openStatements = new ArrayList<>();
+
+    private Connection proxy;
+    private boolean closed;
+    private Boolean originalAutoCommit;
+    private Boolean originalReadOnly;
+    private Integer originalTransactionIsolation;
+
+    private ProxyConnection(final ConnectionPool pool, final PoolEntry entry) {
+        this.pool = pool;
+        this.entry = entry;
+        this.delegate = entry.getConnection();
+    }
+
+    static Connection create(final ConnectionPool pool, final PoolEntry entry) {
+        final var handler = new ProxyConnection(pool, entry);
+        handler.proxy = (Connection) Proxy.newProxyInstance(
+                ProxyConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ProxyConnection(" + delegate + ")";
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed;
+            case "isValid":
+                if (closed) {
+                    return false;
+                }
+                break;
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            case "setAutoCommit":
+                if (originalAutoCommit == null && !closed) {
+                    originalAutoCommit = delegate.getAutoCommit();
+                }
+                break;
+            case "setReadOnly":
+                if (originalReadOnly == null && !closed) {
+                    originalReadOnly = delegate.isReadOnly();
+                }
+                break;
+            case "setTransactionIsolation":
+                if (originalTransactionIsolation == null && !closed) {
+                    originalTransactionIsolation = delegate.getTransactionIsolation();
+                }
+                break;
+            default:
+                break;
+        }
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        final Object result;
+        try {
+            result = method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (result instanceof Statement) {
+            return track(ProxyStatement.create(this, this.proxy, (Statement) result, method.getReturnType()));
+        }
+        return result;
+    }
+
+    private Statement track(final ProxyStatement statement) {
+        openStatements.add(statement);
+        return statement.getProxy();
+    }
+
+    // 대부분 가장 최근에 만든 Statement를 먼저 닫으므로 뒤에서부터 찾는다.
+    void untrack(final ProxyStatement statement) {
+        final var index = openStatements.lastIndexOf(statement);
+        if (index >= 0) {
+            openStatements.remove(index);
+        }
+    }
+
+    private void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeStatements();
+            reset();
+        } catch (SQLException e) {
+            pool.discard(entry);
+            throw e;
+        }
+        pool.release(entry);
+    }
+
+    private void closeStatements() throws SQLException {
+        SQLException failure = null;
+        for (final var statement : openStatements) {
+            try {
+                statement.closeDelegate();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        openStatements.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void reset() throws SQLException {
+        // autoCommit을 바꾸지 않았으면 진행 중인 트랜잭션이 없으므로 드라이버를 호출하지 않는다.
+        if (originalAutoCommit != null) {
+            if (!delegate.getAutoCommit()) {
+                delegate.rollback();
+            }
+            delegate.setAutoCommit(originalAutoCommit);
+        }
+        if (originalReadOnly != null) {
+            delegate.setReadOnly(originalReadOnly);
+        }
+        if (originalTransactionIsolation != null) {
+            delegate.setTransactionIsolation(originalTransactionIsolation);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package jdbc.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * ProxyConnection이 만든 Statement. 커넥션을 반납할 때 닫지 않은 Statement를 함께 닫을 수 있게 ProxyConnection에 등록한다.
+ * getConnection()은 물리 커넥션 대신 빌려준 커넥션을 돌려주고, 이 Statement가 만든 ResultSet의 getStatement()도 프록시를 돌려준다.
+ * 그래야 Statement에서 얻은 커넥션을 닫아도 물리 커넥션이 닫히지 않고 풀에 반납된다.
+ */
+final class ProxyStatement implements InvocationHandler {
+
+    private final ProxyConnection connection;
+    private final Connection connectionProxy;
+    private final Statement delegate;
+
+    private Statement proxy;
+    private boolean closed;
+
+    private ProxyStatement(final ProxyConnection connection, final Connection connectionProxy, final Statement delegate) {
+        this.connection = connection;
+        this.connectionProxy = connectionProxy;
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param type 커넥션 메서드의 반환 타입 (Statement, PreparedStatement, CallableStatement)
+     */
+    static ProxyStatement create(final ProxyConnection connection, final Connection connectionProxy,
+                                 final Statement delegate, final Class<?> type) {
+        final var handler = new ProxyStatement(connection, connectionProxy, delegate);
+        handler.proxy = (Statement) Proxy.newProxyInstance(
+                ProxyStatement.class.getClassLoader(),
+                new Class<?>[]{type},
+                handler);
+        return handler;
+    }
+
+    Statement getProxy() {
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ProxyStatement(" + delegate + ")";
+            case "close":
+                if (!closed) {
+                    connection.untrack(this);
+                    closeDelegate();
+                }
+                return null;
+            case "getConnection":
+                return connectionProxy;
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        final Object result;
+        try {
+            result = method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (result instanceof ResultSet) {
+            return wrap((ResultSet) result);
+        }
+        return result;
+    }
+
+    /**
+     * 커넥션 쪽 등록은 건드리지 않고 물리 Statement만 닫는다. Statement를 닫으면 드라이버가 열린 ResultSet도 닫는다.
+     */
+    void closeDelegate() throws SQLException {
+        closed = true;
+        delegate.close();
+    }
+
+    private ResultSet wrap(final ResultSet resultSet) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ProxyStatement.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (resultSetProxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return resultSetProxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(resultSetProxy);
+                        case "getStatement":
+                            return proxy;
+                        default:
+                            try {
+                                return method.invoke(resultSet, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+}
@@ -0,0 +1,239 @@
+package jdbc.pool;
+
+import jdbc.DataSourceConfig;
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConnectionPoolTest {
+
+    private static final String H2_URL = "jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * Stage2Test와 같은 상황. 최대 풀 사이즈보다 많은 스레드가 동시에 커넥션을 요청해도 최대 풀 사이즈를 넘지 않는다.
+     */
+    @Test
+    void keepMaximumPoolSizeUnderConcurrentRequests() throws InterruptedException {
+        pool = new ConnectionPool(config(DataSourceConfig.MAXIMUM_POOL_SIZE));
+        final var succeeded = new AtomicInteger();
+        final var active = new AtomicInteger();
+        final var maxActive = new LongAccumulator(Math::max, 0);
+
+        final var threads = new Thread[20];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try (Connection ignored = pool.getConnection()) {
+                    maxActive.accumulate(active.incrementAndGet());
+                    TimeUnit.MILLISECONDS.sleep(500);
+                    active.decrementAndGet();
+                    succeeded.incrementAndGet();
+                } catch (SQLException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        for (final var thread : threads) {
+            thread.start();
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+
+        assertThat(succeeded).hasValue(20);
+        assertThat(maxActive.get()).isEqualTo(DataSourceConfig.MAXIMUM_POOL_SIZE);
+        assertThat(pool.getTotalConnections()).isEqualTo(DataSourceConfig.MAXIMUM_POOL_SIZE);
+        assertThat(pool.getCreatedCount()).isEqualTo(DataSourceConfig.MAXIMUM_POOL_SIZE);
+        assertThat(pool.getActiveConnections()).isZero();
+    }
+
+    @Test
+    void reuseConnectionReturnedBySameThread() throws SQLException {
+        pool = new ConnectionPool(config(5));
+
+        final JdbcConnection first;
+        try (final var connection = pool.getConnection()) {
+            first = connection.unwrap(JdbcConnection.class);
+        }
+        try (final var connection = pool.getConnection()) {
+            assertThat(connection.unwrap(JdbcConnection.class)).isSameAs(first);
+        }
+
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+        assertThat(pool.getIdleConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void timeoutWhenPoolIsExhausted() throws SQLException {
+        final var config = config(1);
+        config.setConnectionTimeout(Duration.ofMillis(100));
+        pool = new ConnectionPool(config);
+
+        try (final var ignored = pool.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+        }
+
+        assertThat(pool.getTimeoutCount()).isEqualTo(1);
+    }
+
+    @Test
+    void handOffReturnedConnectionToWaitingThread() throws Exception {
+        pool = new ConnectionPool(config(1));
+        final var borrowed = new CountDownLatch(1);
+        final var physicalConnections = ConcurrentHashMap.<Connection>newKeySet();
+
+        final var holder = new Thread(() -> {
+            try (final var connection = pool.getConnection()) {
+                physicalConnections.add(connection.unwrap(JdbcConnection.class));
+                borrowed.countDown();
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (SQLException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        borrowed.await();
+
+        try (final var connection = pool.getConnection()) {
+            physicalConnections.add(connection.unwrap(JdbcConnection.class));
+        }
+        holder.join();
+
+        assertThat(physicalConnections).hasSize(1);
+        assertThat(pool.getMaxAcquireNanos()).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void discardInvalidConnection() throws SQLException {
+        final var config = config(1);
+        config.setAliveBypassWindow(Duration.ZERO);
+        pool = new ConnectionPool(config);
+
+        final JdbcConnection broken;
+        try (final var connection = pool.getConnection()) {
+            broken = connection.unwrap(JdbcConnection.class);
+        }
+        broken.close();
+
+        try (final var connection = pool.getConnection()) {
+            assertThat(connection.unwrap(JdbcConnection.class)).isNotSameAs(broken);
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        assertThat(pool.getValidationFailureCount()).isEqualTo(1);
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void rollbackAndRestoreAutoCommitOnClose() throws SQLException {
+        pool = new ConnectionPool(config(1));
+        try (final var connection = pool.getConnection()) {
+            connection.createStatement().execute("create table if not exists pool_test (id int)");
+        }
+
+        try (final var connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.createStatement().execute("insert into pool_test values (1)");
+        }
+
+        try (final var connection = pool.getConnection();
+             final var resultSet = connection.createStatement().executeQuery("select count(*) from pool_test")) {
+            assertThat(connection.getAutoCommit()).isTrue();
+            resultSet.next();
+            assertThat(resultSet.getInt(1)).isZero();
+        }
+    }
+
+    @Test
+    void closeOpenStatementsOnReturn() throws SQLException {
+        pool = new ConnectionPool(config(1));
+        final var connection = pool.getConnection();
+        final var statement = connection.createStatement();
+        final var preparedStatement = connection.prepareStatement("select 1");
+        final var resultSet = preparedStatement.executeQuery();
+
+        assertThat(statement.getConnection()).isSameAs(connection);
+        assertThat(resultSet.getStatement()).isSameAs(preparedStatement);
+
+        connection.close();
+
+        assertThat(statement.isClosed()).isTrue();
+        assertThat(preparedStatement.isClosed()).isTrue();
+        assertThat(resultSet.isClosed()).isTrue();
+    }
+
+    @Test
+    void connectionFromStatementReturnsToPool() throws SQLException {
+        pool = new ConnectionPool(config(1));
+        final JdbcConnection physical;
+        try (final var connection = pool.getConnection()) {
+            physical = connection.unwrap(JdbcConnection.class);
+            connection.createStatement().getConnection().close();
+        }
+
+        assertThat(physical.isClosed()).isFalse();
+        assertThat(pool.getIdleConnections()).isEqualTo(1);
+        try (final var connection = pool.getConnection()) {
+            assertThat(connection.unwrap(JdbcConnection.class)).isSameAs(physical);
+        }
+    }
+
+    @Test
+    void evictIdleConnections() throws SQLException {
+        final var config = config(5);
+        config.setIdleTimeout(Duration.ZERO);
+        config.setMinimumIdle(1);
+        pool = new ConnectionPool(config);
+        try (final var first = pool.getConnection();
+             final var second = pool.getConnection();
+             final var third = pool.getConnection()) {
+            assertThat(pool.getTotalConnections()).isEqualTo(3);
+        }
+
+        pool.evictIdleConnections();
+
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+        assertThat(pool.getIdleEvictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void closedConnectionCannotBeUsed() throws SQLException {
+        pool = new ConnectionPool(config(1));
+        final var connection = pool.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(connection.isClosed()).isTrue();
+        assertThrows(SQLException.class, connection::createStatement);
+        assertThat(pool.getIdleConnections()).isEqualTo(1);
+    }
+
+    private static PoolConfig config(final int maximumPoolSize) {
+        final var config = new PoolConfig();
+        config.setPoolName("test");
+        config.setJdbcUrl(H2_URL);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setConnectionTimeout(Duration.ofSeconds(5));
+        return config;
+    }
+}
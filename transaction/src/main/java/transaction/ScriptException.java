@@ -0,0 +1,13 @@
+package transaction;
+
+public class ScriptException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ScriptException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ScriptException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,150 @@
+package transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 클래스패스의 sql 스크립트를 스트리밍으로 읽어서 statement 단위로 실행한다.
+ * DML(insert, update, delete, merge)은 batchSize만큼 모아서 JDBC 배치로 실행하고,
+ * 나머지(DDL, select, call, set 등)는 배치에 넣으면 executeBatch가 실패하므로 하나씩 실행한다.
+ * 전체 스크립트는 하나의 트랜잭션에서 실행하고 실패하면 롤백한다.
+ * (대부분의 데이터베이스는 DDL을 실행할 때 암묵적으로 커밋한다.)
+ */
+public class ScriptRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ScriptRunner.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int MAX_LOG_LENGTH = 80;
+
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    public ScriptRunner(final DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    public ScriptRunner(final DataSource dataSource, final int batchSize) {
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return 실행한 statement 개수
+     */
+    public int run(final String resource) {
+        final var inputStream = ScriptRunner.class.getClassLoader().getResourceAsStream(resource);
+        if (inputStream == null) {
+            throw new ScriptException("Cannot find script : " + resource);
+        }
+
+        final var start = System.nanoTime();
+        try (final var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+             final var connection = dataSource.getConnection()) {
+            final var autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                final var executed = execute(new ScriptStatementSplitter(reader), connection);
+                connection.commit();
+                log.info("Executed {} statements from {} in {} ms", executed, resource, elapsedMillis(start));
+                return executed;
+            } catch (SQLException | RuntimeException e) {
+                rollback(connection, e);
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (IOException | SQLException e) {
+            throw new ScriptException("Failed to execute script : " + resource, e);
+        }
+    }
+
+    // 롤백이 실패해도 스크립트를 실행하다 발생한 원래 예외를 던진다.
+    private static void rollback(final Connection connection, final Exception cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private int execute(final ScriptStatementSplitter splitter, final Connection connection) throws IOException, SQLException {
+        try (final var statement = connection.createStatement()) {
+            final var batch = new ArrayList<String>(batchSize);
+            var executed = 0;
+            String sql;
+            while ((sql = splitter.next()) != null) {
+                if (!isBatchable(sql)) {
+                    executed += executeBatch(statement, batch);
+                    executeSingle(statement, sql, executed + 1);
+                    executed++;
+                    continue;
+                }
+                statement.addBatch(sql);
+                batch.add(sql);
+                if (batch.size() == batchSize) {
+                    executed += executeBatch(statement, batch);
+                }
+            }
+            return executed + executeBatch(statement, batch);
+        }
+    }
+
+    private void executeSingle(final Statement statement, final String sql, final int number) {
+        final var start = System.nanoTime();
+        try {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new ScriptException("Failed to execute statement #" + number + " : " + sql, e);
+        }
+        log.debug("#{} {} ms : {}", number, elapsedMillis(start), abbreviate(sql));
+    }
+
+    private int executeBatch(final Statement statement, final List<String> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        final var start = System.nanoTime();
+        try {
+            statement.executeBatch();
+        } catch (SQLException e) {
+            throw new ScriptException("Failed to execute batch starting with : " + abbreviate(batch.get(0)), e);
+        }
+        final var size = batch.size();
+        final var elapsed = elapsedMillis(start);
+        log.debug("batch of {} statements {} ms ({} ms/statement) : {}",
+                size, elapsed, elapsed / size, abbreviate(batch.get(0)));
+        batch.clear();
+        return size;
+    }
+
+    private static boolean isBatchable(final String sql) {
+        final var keyword = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return keyword.startsWith("insert") || keyword.startsWith("update")
+                || keyword.startsWith("delete") || keyword.startsWith("merge");
+    }
+
+    private static double elapsedMillis(final long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    private static String abbreviate(final String sql) {
+        final var singleLine = sql.replaceAll("\\s+", " ");
+        if (singleLine.length() <= MAX_LOG_LENGTH) {
+            return singleLine;
+        }
+        return singleLine.substring(0, MAX_LOG_LENGTH) + "...";
+    }
+}
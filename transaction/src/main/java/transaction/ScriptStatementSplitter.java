@@ -0,0 +1,101 @@
+package transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+/**
+ * sql 스크립트를 한 줄씩 읽으면서 구분자(기본값 ;) 단위로 statement를 나눈다.
+ * 따옴표(', ", `) 안의 구분자는 무시하고, -- 주석과 블록 주석은 제거한다.
+ * 따옴표 안의 따옴표는 SQL 표준처럼 두 번 써서('') 표현한다. 백슬래시는 이스케이프 문자로 취급하지 않는다.
+ * MySQL 클라이언트처럼 DELIMITER 명령으로 구분자를 바꿀 수 있다.
+ */
+public class ScriptStatementSplitter {
+
+    private static final String DEFAULT_DELIMITER = ";";
+    private static final String DELIMITER_COMMAND = "DELIMITER ";
+
+    private final BufferedReader reader;
+    private final Deque<String> statements = new ArrayDeque<>();
+    private final StringBuilder buffer = new StringBuilder();
+    private String delimiter = DEFAULT_DELIMITER;
+    private char quote;
+    private boolean inBlockComment;
+    private boolean eof;
+
+    public ScriptStatementSplitter(final BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 다음 statement를 반환한다. 더 이상 없으면 null을 반환한다.
+     */
+    public String next() throws IOException {
+        while (statements.isEmpty() && !eof) {
+            final var line = reader.readLine();
+            if (line == null) {
+                eof = true;
+                emit();
+            } else {
+                readLine(line);
+            }
+        }
+        return statements.poll();
+    }
+
+    private void readLine(final String line) {
+        if (quote == 0 && !inBlockComment && buffer.toString().isBlank()
+                && line.trim().toUpperCase(Locale.ROOT).startsWith(DELIMITER_COMMAND)) {
+            delimiter = line.trim().substring(DELIMITER_COMMAND.length()).trim();
+            return;
+        }
+
+        for (int i = 0; i < line.length(); i++) {
+            final var c = line.charAt(i);
+            if (inBlockComment) {
+                if (line.startsWith("*/", i)) {
+                    inBlockComment = false;
+                    i++;
+                }
+                continue;
+            }
+            if (quote != 0) {
+                buffer.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (line.startsWith("--", i)) {
+                break;
+            }
+            if (line.startsWith("/*", i)) {
+                inBlockComment = true;
+                i++;
+                continue;
+            }
+            if (line.startsWith(delimiter, i)) {
+                emit();
+                i += delimiter.length() - 1;
+                continue;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+            buffer.append(c);
+        }
+        if (buffer.length() > 0) {
+            buffer.append('\n');
+        }
+    }
+
+    private void emit() {
+        final var statement = buffer.toString().trim();
+        buffer.setLength(0);
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+    }
+}
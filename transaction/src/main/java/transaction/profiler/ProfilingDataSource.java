@@ -0,0 +1,34 @@
+package transaction.profiler;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 커넥션을 얻을 때마다 현재 트랜잭션의 커넥션 획득 횟수를 늘린다.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final TransactionProfiler profiler;
+
+    public ProfilingDataSource(final DataSource targetDataSource, final TransactionProfiler profiler) {
+        super(targetDataSource);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final var connection = super.getConnection();
+        profiler.connectionAcquired();
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        final var connection = super.getConnection(username, password);
+        profiler.connectionAcquired();
+        return connection;
+    }
+}
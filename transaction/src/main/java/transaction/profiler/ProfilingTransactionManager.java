@@ -0,0 +1,56 @@
+package transaction.profiler;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 실제 트랜잭션 매니저를 감싸서 TransactionProfiler에 트랜잭션 시작과 종료를 기록한다.
+ * AbstractPlatformTransactionManager의 getTransaction, commit, rollback은 final 이라서 상속 대신 위임을 사용한다.
+ */
+public class ProfilingTransactionManager implements PlatformTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+    private final TransactionProfiler profiler;
+
+    public ProfilingTransactionManager(final PlatformTransactionManager delegate, final TransactionProfiler profiler) {
+        this.delegate = delegate;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(final TransactionDefinition definition) throws TransactionException {
+        final var transactionDefinition = definition == null ? TransactionDefinition.withDefaults() : definition;
+        final var existingTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        // 트랜잭션을 시작하면서 얻는 커넥션도 이 트랜잭션에 기록되도록 먼저 시작을 기록한다.
+        profiler.begin(transactionDefinition, existingTransaction);
+        try {
+            return delegate.getTransaction(transactionDefinition);
+        } catch (RuntimeException | Error e) {
+            profiler.complete(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public void commit(final TransactionStatus status) throws TransactionException {
+        var committed = false;
+        try {
+            delegate.commit(status);
+            committed = !status.isRollbackOnly();
+        } finally {
+            profiler.complete(committed);
+        }
+    }
+
+    @Override
+    public void rollback(final TransactionStatus status) throws TransactionException {
+        try {
+            delegate.rollback(status);
+        } finally {
+            profiler.complete(false);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package transaction.profiler;
+
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 트랜잭션 이름별로 suspend/resume, savepoint, 커넥션 획득 횟수와 실행 시간을 모은다.
+ * 트랜잭션은 스레드 안에서 LIFO로 시작하고 끝나므로 스레드마다 스택으로 현재 트랜잭션을 추적한다.
+ */
+public class TransactionProfiler {
+
+    static final String NO_TRANSACTION = "(no transaction)";
+
+    private final Map<String, TransactionStats> stats = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    void begin(final TransactionDefinition definition, final boolean existingTransaction) {
+        final var name = nameOf(definition);
+        final var transactionStats = statsOf(name);
+        transactionStats.begin();
+
+        final var propagation = definition.getPropagationBehavior();
+        final var suspends = existingTransaction
+                && (propagation == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                || propagation == TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        if (suspends) {
+            transactionStats.suspend();
+        }
+        if (existingTransaction && propagation == TransactionDefinition.PROPAGATION_NESTED) {
+            transactionStats.savepoint();
+        }
+        frames.get().push(new Frame(name, suspends, System.nanoTime()));
+    }
+
+    void complete(final boolean committed) {
+        final var stack = frames.get();
+        final var frame = stack.poll();
+        if (stack.isEmpty()) {
+            frames.remove();
+        }
+        if (frame == null) {
+            return;
+        }
+        final var transactionStats = statsOf(frame.name);
+        transactionStats.complete(committed, System.nanoTime() - frame.start);
+        if (frame.suspends) {
+            transactionStats.resume();
+        }
+    }
+
+    void connectionAcquired() {
+        final var frame = frames.get().peek();
+        statsOf(frame == null ? NO_TRANSACTION : frame.name).connectionAcquired();
+    }
+
+    public Map<String, TransactionStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    public String report() {
+        final var header = String.format("%-60s | %6s | %6s | %8s | %7s | %6s | %9s | %10s | %9s | %8s",
+                "transaction", "count", "commit", "rollback", "suspend", "resume", "savepoint", "connection", "mean(ms)", "max(ms)");
+        return header + "\n" + "-".repeat(header.length()) + "\n" + getStats().entrySet().stream()
+                .map(entry -> {
+                    final var value = entry.getValue();
+                    return String.format("%-60s | %6d | %6d | %8d | %7d | %6d | %9d | %10d | %9.3f | %8.3f",
+                            entry.getKey(), value.getTransactions(), value.getCommits(), value.getRollbacks(),
+                            value.getSuspends(), value.getResumes(), value.getSavepoints(),
+                            value.getConnectionAcquisitions(), value.getMeanMillis(), value.getMaxMillis());
+                })
+                .collect(Collectors.joining("\n"));
+    }
+
+    private TransactionStats statsOf(final String name) {
+        return stats.computeIfAbsent(name, ignored -> new TransactionStats());
+    }
+
+    private static String nameOf(final TransactionDefinition definition) {
+        final var name = definition.getName();
+        if (name == null) {
+            return "(unnamed)";
+        }
+        return name;
+    }
+
+    private static class Frame {
+
+        private final String name;
+        private final boolean suspends;
+        private final long start;
+
+        Frame(final String name, final boolean suspends, final long start) {
+            this.name = name;
+            this.suspends = suspends;
+            this.start = start;
+        }
+    }
+}
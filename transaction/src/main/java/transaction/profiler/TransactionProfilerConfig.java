@@ -0,0 +1,56 @@
+package transaction.profiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * transaction.profiler.enabled=true 일 때 트랜잭션 매니저와 DataSource를 감싸서 전파 방식별 비용을 측정한다.
+ * 애플리케이션이 종료될 때 트랜잭션 이름별 통계를 로그로 출력한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "transaction.profiler", name = "enabled", havingValue = "true")
+public class TransactionProfilerConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionProfilerConfig.class);
+
+    @Bean
+    public TransactionProfiler transactionProfiler() {
+        return new TransactionProfiler();
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(final EntityManagerFactory entityManagerFactory,
+                                                         final TransactionProfiler transactionProfiler) {
+        return new ProfilingTransactionManager(new JpaTransactionManager(entityManagerFactory), transactionProfiler);
+    }
+
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(final ObjectProvider<TransactionProfiler> transactionProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource((DataSource) bean, transactionProfiler.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ApplicationListener<ContextClosedEvent> transactionProfilerReporter(final TransactionProfiler transactionProfiler) {
+        return event -> log.info("\n{}", transactionProfiler.report());
+    }
+}
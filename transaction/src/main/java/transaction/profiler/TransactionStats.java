@@ -0,0 +1,90 @@
+package transaction.profiler;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 트랜잭션 이름(기본값은 클래스.메서드) 하나에 대한 누적 통계.
+ */
+public class TransactionStats {
+
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final LongAdder suspends = new LongAdder();
+    private final LongAdder resumes = new LongAdder();
+    private final LongAdder savepoints = new LongAdder();
+    private final LongAdder connectionAcquisitions = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void begin() {
+        transactions.increment();
+    }
+
+    void complete(final boolean committed, final long elapsedNanos) {
+        if (committed) {
+            commits.increment();
+        } else {
+            rollbacks.increment();
+        }
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulate(elapsedNanos);
+    }
+
+    void suspend() {
+        suspends.increment();
+    }
+
+    void resume() {
+        resumes.increment();
+    }
+
+    void savepoint() {
+        savepoints.increment();
+    }
+
+    void connectionAcquired() {
+        connectionAcquisitions.increment();
+    }
+
+    public long getTransactions() {
+        return transactions.sum();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getRollbacks() {
+        return rollbacks.sum();
+    }
+
+    public long getSuspends() {
+        return suspends.sum();
+    }
+
+    public long getResumes() {
+        return resumes.sum();
+    }
+
+    public long getSavepoints() {
+        return savepoints.sum();
+    }
+
+    public long getConnectionAcquisitions() {
+        return connectionAcquisitions.sum();
+    }
+
+    public double getMeanMillis() {
+        final var completed = getCommits() + getRollbacks();
+        if (completed == 0) {
+            return 0;
+        }
+        return totalNanos.sum() / 1_000_000.0 / completed;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+}
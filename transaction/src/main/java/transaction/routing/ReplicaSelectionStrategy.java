@@ -0,0 +1,6 @@
+package transaction.routing;
+
+public enum ReplicaSelectionStrategy {
+    ROUND_ROBIN,
+    LEAST_ACTIVE
+}
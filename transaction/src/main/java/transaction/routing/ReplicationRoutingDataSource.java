@@ -0,0 +1,163 @@
+package transaction.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Transactional(readOnly = true) 트랜잭션은 replica로, 나머지는 primary로 보낸다.
+ *
+ * 트랜잭션 속성이 정해진 뒤에 커넥션을 얻어야 하므로 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+ * 현재 스레드에 바인딩된 ReplicationSession에서 쓰기 트랜잭션을 커밋하면 replicationLag 동안 같은 세션의 읽기 전용 트랜잭션도 primary로 보낸다.
+ * 방금 쓴 데이터가 replica에 아직 반영되지 않았을 수 있기 때문이다.
+ * 세션은 openSession()이나 bind()로 바인딩하고 반환한 Scope를 닫아서 해제한다. 바인딩된 세션이 없으면 항상 replica에서 읽는다.
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+    private static final String REPLICA_PREFIX = "replica-";
+
+    private final ThreadLocal<ReplicationSession> currentSession = new ThreadLocal<>();
+
+    private final List<DataSource> replicas;
+    private final ReplicaSelectionStrategy strategy;
+    private final long replicationLagNanos;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(final DataSource primary, final List<DataSource> replicas,
+                                       final ReplicaSelectionStrategy strategy, final Duration replicationLag) {
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.replicationLagNanos = replicationLag.toNanos();
+
+        final Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(REPLICA_PREFIX + i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * 새 세션을 현재 스레드에 바인딩한다.
+     */
+    public Scope openSession() {
+        return bind(new ReplicationSession());
+    }
+
+    /**
+     * 보관해둔 세션을 현재 스레드에 바인딩한다. Scope를 닫으면 이전에 바인딩된 세션으로 되돌린다.
+     */
+    public Scope bind(final ReplicationSession session) {
+        final var previous = currentSession.get();
+        currentSession.set(session);
+        return () -> {
+            if (previous == null) {
+                currentSession.remove();
+            } else {
+                currentSession.set(previous);
+            }
+        };
+    }
+
+    public ReplicationSession currentSession() {
+        return currentSession.get();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                pinAfterWrite();
+            }
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        final var key = REPLICA_PREFIX + selectReplica();
+        log.debug("Route read-only transaction to {}", key);
+        return key;
+    }
+
+    private void pinAfterWrite() {
+        final var session = currentSession.get();
+        if (session == null || replicationLagNanos <= 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pin(session);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pin(session);
+            }
+        });
+    }
+
+    private void pin(final ReplicationSession session) {
+        session.pinUntil(System.nanoTime() + replicationLagNanos);
+    }
+
+    private boolean isPinnedToPrimary() {
+        final var session = currentSession.get();
+        return session != null && session.isPinned(System.nanoTime());
+    }
+
+    private int selectReplica() {
+        if (strategy == ReplicaSelectionStrategy.LEAST_ACTIVE) {
+            return leastActiveReplica();
+        }
+        return Math.floorMod(counter.getAndIncrement(), replicas.size());
+    }
+
+    // 활성 커넥션 수를 알 수 없는 DataSource는 0개로 취급한다.
+    private int leastActiveReplica() {
+        var selected = 0;
+        var minActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            final var active = activeConnections(replicas.get(i));
+            if (active < minActive) {
+                minActive = active;
+                selected = i;
+            }
+        }
+        return selected;
+    }
+
+    private static int activeConnections(final DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            final var pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            if (pool != null) {
+                return pool.getActiveConnections();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 세션 바인딩을 해제한다. try-with-resources로 사용한다.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
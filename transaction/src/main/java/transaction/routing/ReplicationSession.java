@@ -0,0 +1,25 @@
+package transaction.routing;
+
+/**
+ * read-your-writes를 보장할 범위. 보통 HTTP 요청 하나가 세션 하나다.
+ *
+ * 세션에서 쓰기 트랜잭션을 커밋하면 replicationLag 동안 같은 세션의 읽기 전용 트랜잭션을 primary로 보낸다.
+ * 여러 요청에 걸쳐 보장하고 싶으면 세션을 HTTP 세션 등에 보관해두고 요청마다 ReplicationRoutingDataSource.bind로 다시 바인딩한다.
+ */
+public class ReplicationSession {
+
+    private boolean pinned;
+    private long pinnedUntil;
+
+    synchronized void pinUntil(final long nanoTime) {
+        pinned = true;
+        pinnedUntil = nanoTime;
+    }
+
+    synchronized boolean isPinned(final long now) {
+        if (pinned && now - pinnedUntil >= 0) {
+            pinned = false;
+        }
+        return pinned;
+    }
+}
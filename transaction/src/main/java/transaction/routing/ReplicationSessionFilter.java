@@ -0,0 +1,30 @@
+package transaction.routing;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * HTTP 요청마다 ReplicationSession을 바인딩하고 요청이 끝나면 해제한다.
+ * 요청 안에서 커밋한 쓰기는 같은 요청의 이후 읽기에서 보인다.
+ */
+public class ReplicationSessionFilter extends OncePerRequestFilter {
+
+    private final ReplicationRoutingDataSource dataSource;
+
+    public ReplicationSessionFilter(final ReplicationRoutingDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        try (final var ignored = dataSource.openSession()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
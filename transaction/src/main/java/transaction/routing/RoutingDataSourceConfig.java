@@ -0,0 +1,52 @@
+package transaction.routing;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+/**
+ * datasource.routing.enabled=true 일 때만 동작한다.
+ * 설정하지 않으면 application.yml의 spring.datasource.hikari 설정으로 만든 DataSource를 그대로 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public ReplicationSessionFilter replicationSessionFilter(final DataSource dataSource) throws SQLException {
+        return new ReplicationSessionFilter(dataSource.unwrap(ReplicationRoutingDataSource.class));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(final RoutingDataSourceProperties properties) {
+        final var primary = createHikariDataSource("primary", properties.getPrimary());
+        final var replicas = new ArrayList<DataSource>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(createHikariDataSource("replica-" + i, properties.getReplicas().get(i)));
+        }
+        final var routingDataSource = new ReplicationRoutingDataSource(
+                primary, replicas, properties.getStrategy(), properties.getReplicationLag());
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static HikariDataSource createHikariDataSource(final String poolName, final RoutingDataSourceProperties.Node node) {
+        final var hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName(poolName);
+        hikariConfig.setJdbcUrl(node.getJdbcUrl());
+        hikariConfig.setUsername(node.getUsername());
+        hikariConfig.setPassword(node.getPassword());
+        hikariConfig.setMaximumPoolSize(node.getMaximumPoolSize());
+        return new HikariDataSource(hikariConfig);
+    }
+}
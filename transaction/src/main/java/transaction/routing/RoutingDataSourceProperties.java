@@ -0,0 +1,97 @@
+package transaction.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled;
+    private ReplicaSelectionStrategy strategy = ReplicaSelectionStrategy.ROUND_ROBIN;
+    private Duration replicationLag = Duration.ofSeconds(1);
+    private Node primary = new Node();
+    private List<Node> replicas = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public ReplicaSelectionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(final ReplicaSelectionStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public Duration getReplicationLag() {
+        return replicationLag;
+    }
+
+    public void setReplicationLag(final Duration replicationLag) {
+        this.replicationLag = replicationLag;
+    }
+
+    public Node getPrimary() {
+        return primary;
+    }
+
+    public void setPrimary(final Node primary) {
+        this.primary = primary;
+    }
+
+    public List<Node> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(final List<Node> replicas) {
+        this.replicas = replicas;
+    }
+
+    public static class Node {
+
+        private String jdbcUrl;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+
+        public String getJdbcUrl() {
+            return jdbcUrl;
+        }
+
+        public void setJdbcUrl(final String jdbcUrl) {
+            this.jdbcUrl = jdbcUrl;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(final String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(final String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(final int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
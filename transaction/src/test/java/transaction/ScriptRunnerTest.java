@@ -0,0 +1,41 @@
+package transaction;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScriptRunnerTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setUrl("jdbc:h2:mem:script-runner;DB_CLOSE_DELAY=-1;MODE=MYSQL;");
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+        try (final var connection = dataSource.getConnection()) {
+            connection.createStatement().execute("drop table if exists script_runner_test");
+        }
+    }
+
+    @Test
+    void runsNonDmlStatementsOutsideBatch() throws SQLException {
+        final var executed = new ScriptRunner(dataSource, 2).run("script-runner-test.sql");
+
+        assertThat(executed).isEqualTo(9);
+        try (final var connection = dataSource.getConnection();
+             final var rs = connection.createStatement().executeQuery("select id, name from script_runner_test order by id")) {
+            final var rows = new ArrayList<String>();
+            while (rs.next()) {
+                rows.add(rs.getLong(1) + ":" + rs.getString(2));
+            }
+            assertThat(rows).containsExactly("1:pobi", "3:brown");
+        }
+    }
+}
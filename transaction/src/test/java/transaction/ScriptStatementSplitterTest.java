@@ -0,0 +1,100 @@
+package transaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScriptStatementSplitterTest {
+
+    @Test
+    void splitsByDelimiterAndKeepsLastStatementWithoutDelimiter() throws IOException {
+        final var statements = split("insert into users values (1); insert into users values (2);\ninsert into users values (3)");
+
+        assertThat(statements).containsExactly(
+                "insert into users values (1)",
+                "insert into users values (2)",
+                "insert into users values (3)");
+    }
+
+    @Test
+    void ignoresDelimiterAndCommentMarkersInsideQuotes() throws IOException {
+        final var statements = split("insert into users (account, email) values ('a;b', \"--not a comment\");\n"
+                + "select `semi;colon` from users;");
+
+        assertThat(statements).containsExactly(
+                "insert into users (account, email) values ('a;b', \"--not a comment\")",
+                "select `semi;colon` from users");
+    }
+
+    @Test
+    void treatsDoubledQuoteAsEscapedQuote() throws IOException {
+        final var statements = split("insert into users (account) values ('it''s; fine'); select 1;");
+
+        assertThat(statements).containsExactly(
+                "insert into users (account) values ('it''s; fine')",
+                "select 1");
+    }
+
+    @Test
+    void doesNotTreatBackslashAsEscape() throws IOException {
+        final var statements = split("insert into paths values ('C:\\'); select 1;");
+
+        assertThat(statements).containsExactly(
+                "insert into paths values ('C:\\')",
+                "select 1");
+    }
+
+    @Test
+    void removesLineAndBlockComments() throws IOException {
+        final var statements = split("-- header\n"
+                + "select 1; -- trailing\n"
+                + "/* block\n"
+                + "   comment; */ select 2;\n"
+                + "select /* inline */ 3;");
+
+        assertThat(statements).containsExactly("select 1", "select 2", "select  3");
+    }
+
+    @Test
+    void keepsQuotedTextAcrossLines() throws IOException {
+        final var statements = split("insert into users (account) values ('first;\nsecond');");
+
+        assertThat(statements).containsExactly("insert into users (account) values ('first;\nsecond')");
+    }
+
+    @Test
+    void changesDelimiterWithDelimiterCommand() throws IOException {
+        final var statements = split("DELIMITER //\n"
+                + "create trigger t before insert on users for each row begin set new.version = 0; end//\n"
+                + "DELIMITER ;\n"
+                + "select 1;");
+
+        assertThat(statements).containsExactly(
+                "create trigger t before insert on users for each row begin set new.version = 0; end",
+                "select 1");
+    }
+
+    @Test
+    void returnsNullAtEndOfScript() throws IOException {
+        final var splitter = new ScriptStatementSplitter(new BufferedReader(new StringReader("-- only a comment\n")));
+
+        assertThat(splitter.next()).isNull();
+        assertThat(splitter.next()).isNull();
+    }
+
+    private static List<String> split(final String script) throws IOException {
+        final var splitter = new ScriptStatementSplitter(new BufferedReader(new StringReader(script)));
+        final var statements = new ArrayList<String>();
+        String statement;
+        while ((statement = splitter.next()) != null) {
+            statements.add(statement);
+        }
+        return statements;
+    }
+}
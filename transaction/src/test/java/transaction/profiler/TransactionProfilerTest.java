@@ -0,0 +1,80 @@
+package transaction.profiler;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionProfilerTest {
+
+    private TransactionProfiler profiler;
+    private ProfilingTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        final var jdbcDataSource = new JdbcDataSource();
+        jdbcDataSource.setUrl("jdbc:h2:mem:profiler;DB_CLOSE_DELAY=-1");
+        jdbcDataSource.setUser("sa");
+        jdbcDataSource.setPassword("");
+
+        profiler = new TransactionProfiler();
+        final var dataSource = new ProfilingDataSource(jdbcDataSource, profiler);
+        transactionManager = new ProfilingTransactionManager(new DataSourceTransactionManager(dataSource), profiler);
+    }
+
+    /**
+     * REQUIRES_NEW는 바깥 트랜잭션을 일시 중단하고 커넥션을 하나 더 얻는다.
+     */
+    @Test
+    void requiresNewSuspendsOuterTransaction() {
+        final var outer = transactionTemplate("outer", TransactionDefinition.PROPAGATION_REQUIRED);
+        final var inner = transactionTemplate("inner", TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(status -> inner.executeWithoutResult(innerStatus -> {}));
+
+        final var stats = profiler.getStats();
+        assertThat(stats.get("outer").getConnectionAcquisitions()).isEqualTo(1);
+        assertThat(stats.get("outer").getCommits()).isEqualTo(1);
+        assertThat(stats.get("inner").getSuspends()).isEqualTo(1);
+        assertThat(stats.get("inner").getResumes()).isEqualTo(1);
+        assertThat(stats.get("inner").getConnectionAcquisitions()).isEqualTo(1);
+    }
+
+    @Test
+    void nestedCreatesSavepoint() {
+        final var outer = transactionTemplate("outer", TransactionDefinition.PROPAGATION_REQUIRED);
+        final var inner = transactionTemplate("inner", TransactionDefinition.PROPAGATION_NESTED);
+
+        outer.executeWithoutResult(status -> inner.executeWithoutResult(innerStatus -> {}));
+
+        final var stats = profiler.getStats();
+        assertThat(stats.get("inner").getSavepoints()).isEqualTo(1);
+        assertThat(stats.get("inner").getConnectionAcquisitions()).isZero();
+    }
+
+    @Test
+    void recordRollbackAndElapsedTime() {
+        final var transactionTemplate = transactionTemplate("rollback", TransactionDefinition.PROPAGATION_REQUIRED);
+
+        transactionTemplate.executeWithoutResult(status -> {});
+        transactionTemplate.executeWithoutResult(status -> status.setRollbackOnly());
+
+        final var stats = profiler.getStats().get("rollback");
+        assertThat(stats.getTransactions()).isEqualTo(2);
+        assertThat(stats.getCommits()).isEqualTo(1);
+        assertThat(stats.getRollbacks()).isEqualTo(1);
+        assertThat(stats.getMaxMillis()).isPositive().isGreaterThanOrEqualTo(stats.getMeanMillis());
+        assertThat(profiler.report()).contains("rollback");
+    }
+
+    private TransactionTemplate transactionTemplate(final String name, final int propagation) {
+        final var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setName(name);
+        transactionTemplate.setPropagationBehavior(propagation);
+        return transactionTemplate;
+    }
+}
@@ -0,0 +1,142 @@
+package transaction.routing;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로컬 H2 데이터베이스 두 개로 primary, replica를 흉내 내서 라우팅을 확인한다.
+ */
+class ReplicationRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() throws SQLException {
+        final var dataSource = createRoutingDataSource(Duration.ZERO);
+
+        beginTransaction(true);
+
+        assertThat(connectedUrl(dataSource)).startsWith(REPLICA_URL);
+    }
+
+    @Test
+    void readWriteTransactionUsesPrimary() throws SQLException {
+        final var dataSource = createRoutingDataSource(Duration.ZERO);
+
+        beginTransaction(false);
+
+        assertThat(connectedUrl(dataSource)).startsWith(PRIMARY_URL);
+    }
+
+    @Test
+    void readAfterWriteIsPinnedToPrimary() throws SQLException {
+        final var dataSource = createRoutingDataSource(Duration.ofMinutes(1));
+
+        try (final var ignored = dataSource.openSession()) {
+            beginTransaction(false);
+            connectedUrl(dataSource);
+            beginTransaction(true);
+
+            assertThat(connectedUrl(dataSource)).startsWith(PRIMARY_URL);
+        }
+    }
+
+    @Test
+    void readAfterWriteIsPinnedOnlyAfterCommit() throws SQLException {
+        final var dataSource = createRoutingDataSource(Duration.ofMinutes(1));
+
+        try (final var ignored = dataSource.openSession()) {
+            TransactionSynchronizationManager.initSynchronization();
+            beginTransaction(false);
+            connectedUrl(dataSource);
+            final var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+
+            beginTransaction(true);
+            assertThat(connectedUrl(dataSource)).startsWith(REPLICA_URL);
+
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            assertThat(connectedUrl(dataSource)).startsWith(PRIMARY_URL);
+        }
+    }
+
+    @Test
+    void pinDoesNotOutliveSession() throws SQLException {
+        final var dataSource = createRoutingDataSource(Duration.ofMinutes(1));
+
+        try (final var ignored = dataSource.openSession()) {
+            beginTransaction(false);
+            connectedUrl(dataSource);
+        }
+        beginTransaction(true);
+
+        assertThat(dataSource.currentSession()).isNull();
+        assertThat(connectedUrl(dataSource)).startsWith(REPLICA_URL);
+        try (final var ignored = dataSource.openSession()) {
+            assertThat(connectedUrl(dataSource)).startsWith(REPLICA_URL);
+        }
+    }
+
+    @Test
+    void boundSessionKeepsPinAcrossScopes() throws SQLException {
+        final var dataSource = createRoutingDataSource(Duration.ofMinutes(1));
+        final var session = new ReplicationSession();
+
+        try (final var ignored = dataSource.bind(session)) {
+            beginTransaction(false);
+            connectedUrl(dataSource);
+        }
+        beginTransaction(true);
+
+        try (final var ignored = dataSource.bind(session)) {
+            assertThat(connectedUrl(dataSource)).startsWith(PRIMARY_URL);
+        }
+    }
+
+    private static void beginTransaction(final boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static String connectedUrl(final DataSource dataSource) throws SQLException {
+        try (final var connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private static ReplicationRoutingDataSource createRoutingDataSource(final Duration replicationLag) {
+        return new ReplicationRoutingDataSource(
+                createH2DataSource(PRIMARY_URL),
+                List.of(createH2DataSource(REPLICA_URL)),
+                ReplicaSelectionStrategy.ROUND_ROBIN,
+                replicationLag);
+    }
+
+    private static DataSource createH2DataSource(final String url) {
+        final var jdbcDataSource = new JdbcDataSource();
+        jdbcDataSource.setUrl(url + ";DB_CLOSE_DELAY=-1");
+        jdbcDataSource.setUser("sa");
+        jdbcDataSource.setPassword("");
+        return jdbcDataSource;
+    }
+}
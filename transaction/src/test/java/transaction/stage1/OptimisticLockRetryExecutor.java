@@ -0,0 +1,69 @@
+package transaction.stage1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import transaction.stage1.jdbc.Backoff;
+import transaction.stage1.jdbc.DataAccessException;
+import transaction.stage1.jdbc.OptimisticLockingFailureException;
+import transaction.stage1.jdbc.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * version 컬럼으로 낙관적 락을 적용해서 user를 수정한다.
+ * 다른 트랜잭션이 먼저 수정해서 version이 달라졌다면 잠시 기다렸다가 user를 다시 조회하고 mutation을 다시 적용한다.
+ * 대기 시간은 Backoff가 정한다. (지수 증가, full jitter)
+ *
+ * 락을 잡지 않으므로 READ COMMITTED에서도 lost update가 발생하지 않는다.
+ */
+public class OptimisticLockRetryExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetryExecutor.class);
+
+    private final UserDao userDao;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Backoff backoff;
+
+    public OptimisticLockRetryExecutor(final DataSource dataSource, final int maxAttempts,
+                                       final Duration baseBackoff, final Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive : " + maxAttempts);
+        }
+        this.userDao = new UserDao(dataSource);
+        this.transactionTemplate = new TransactionTemplate(dataSource);
+        this.maxAttempts = maxAttempts;
+        this.backoff = new Backoff(baseBackoff, maxBackoff);
+    }
+
+    /**
+     * @return 수정에 성공한 user
+     * @throws OptimisticLockingFailureException maxAttempts 만큼 시도해도 충돌이 계속되는 경우
+     */
+    public User update(final long id, final Consumer<User> mutation) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            final var updated = transactionTemplate.execute(Connection.TRANSACTION_READ_COMMITTED, connection -> {
+                final var user = userDao.findById(connection, id);
+                if (user == null) {
+                    throw new DataAccessException("User not found : " + id);
+                }
+                mutation.accept(user);
+                if (userDao.updateIfVersionMatches(connection, user)) {
+                    return user;
+                }
+                return null;
+            });
+            if (updated != null) {
+                return updated;
+            }
+            log.debug("Version conflict on user {} (attempt {}/{})", id, attempt, maxAttempts);
+            if (attempt < maxAttempts) {
+                backoff.sleep(attempt);
+            }
+        }
+        throw new OptimisticLockingFailureException("Failed to update user " + id + " after " + maxAttempts + " attempts");
+    }
+}
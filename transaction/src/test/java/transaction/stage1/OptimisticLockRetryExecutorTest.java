@@ -0,0 +1,80 @@
+package transaction.stage1;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import transaction.DatabasePopulatorUtils;
+import transaction.stage1.jdbc.JdbcTemplate;
+import transaction.stage1.jdbc.OptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticLockRetryExecutorTest {
+
+    private DataSource dataSource;
+    private UserDao userDao;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        final var jdbcDataSource = new JdbcDataSource();
+        jdbcDataSource.setUrl("jdbc:h2:mem:optimistic-lock;DB_CLOSE_DELAY=-1;MODE=MYSQL;");
+        jdbcDataSource.setUser("sa");
+        jdbcDataSource.setPassword("");
+        this.dataSource = jdbcDataSource;
+        DatabasePopulatorUtils.execute(dataSource);
+        new JdbcTemplate(dataSource).update("truncate table users restart identity");
+        this.userDao = new UserDao(dataSource);
+        userDao.insert(new User("gugu", "password", "hkkang@woowahan.com"));
+        this.userId = userDao.findByAccount("gugu").getId();
+    }
+
+    @Test
+    void retriesWithFreshUserAfterVersionConflict() {
+        final var executor = new OptimisticLockRetryExecutor(dataSource, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+        final var attempts = new AtomicInteger();
+
+        final var updated = executor.update(userId, user -> {
+            if (attempts.incrementAndGet() == 1) {
+                updateConcurrently("concurrent");
+            }
+            user.changePassword(user.getPassword() + "-changed");
+        });
+
+        assertThat(attempts).hasValue(2);
+        assertThat(updated.getPassword()).isEqualTo("concurrent-changed");
+        final var stored = userDao.findById(userId);
+        assertThat(stored.getPassword()).isEqualTo("concurrent-changed");
+        assertThat(stored.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        final var executor = new OptimisticLockRetryExecutor(dataSource, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+        final var attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.update(userId, user -> {
+            attempts.incrementAndGet();
+            updateConcurrently("concurrent");
+            user.changePassword("lost");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(userDao.findById(userId).getPassword()).isEqualTo("concurrent");
+    }
+
+    // 트랜잭션에 바인딩된 커넥션이 아닌 다른 커넥션에서 바로 커밋해서 version을 올린다.
+    private void updateConcurrently(final String password) {
+        try (final var connection = dataSource.getConnection()) {
+            new JdbcTemplate(dataSource).update(connection, "update users set password = ?, version = version + 1 where id = ?", password, userId);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ public class User {
     private final String account;
     private String password;
     private final String email;
+    private long version;
 
     public User(long id, String account, String password, String email) {
         this.id = id;
@@ -14,6 +15,11 @@ public class User {
         this.email = email;
     }
 
+    public User(long id, String account, String password, String email, long version) {
+        this(id, account, password, email);
+        this.version = version;
+    }
+
     public User(String account, String password, String email) {
         this.account = account;
         this.password = password;
@@ -44,6 +50,10 @@ public class User {
         return password;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -51,6 +61,7 @@ public class User {
                 ", account='" + account + '\'' +
                 ", email='" + email + '\'' +
                 ", password='" + password + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -1,11 +1,19 @@
 package transaction.stage1;
 
+import transaction.stage1.jdbc.BatchPreparedStatementSetter;
 import transaction.stage1.jdbc.JdbcTemplate;
+import transaction.stage1.jdbc.KeyHolder;
 import transaction.stage1.jdbc.RowMapper;
+import transaction.stage1.jdbc.RowMapperFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class UserDao {
 
@@ -21,46 +29,113 @@ public class UserDao {
         jdbcTemplate.update(connection, sql, user.getAccount(), user.getPassword(), user.getEmail());
     }
 
+    // TransactionTemplate 안에서 호출하면 현재 트랜잭션의 커넥션을 사용한다.
+    public void insert(final User user) {
+        final var sql = "insert into users (account, password, email) values (?, ?, ?)";
+        jdbcTemplate.update(sql, user.getAccount(), user.getPassword(), user.getEmail());
+    }
+
+    public int[] insertAll(final Connection connection, final List<User> users) {
+        final var sql = "insert into users (account, password, email) values (?, ?, ?)";
+        final var batchArgs = users.stream()
+                .map(user -> new Object[]{user.getAccount(), user.getPassword(), user.getEmail()})
+                .collect(Collectors.toList());
+        return jdbcTemplate.batchUpdate(connection, sql, batchArgs);
+    }
+
+    public void insertAll(final Connection connection, final List<User> users, final KeyHolder keyHolder) {
+        final var sql = "insert into users (account, password, email) values (?, ?, ?)";
+        jdbcTemplate.batchUpdate(connection,
+                conn -> conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(final PreparedStatement pstmt, final int i) throws SQLException {
+                        final var user = users.get(i);
+                        pstmt.setString(1, user.getAccount());
+                        pstmt.setString(2, user.getPassword());
+                        pstmt.setString(3, user.getEmail());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder);
+    }
+
     public void update(final Connection connection, final User user) {
-        final var sql = "update users set account = ?, password = ?, email = ? where id = ?";
+        final var sql = "update users set account = ?, password = ?, email = ?, version = version + 1 where id = ?";
         jdbcTemplate.update(connection, sql, user.getAccount(), user.getPassword(), user.getEmail(), user.getId());
     }
 
+    public void update(final User user) {
+        final var sql = "update users set account = ?, password = ?, email = ?, version = version + 1 where id = ?";
+        jdbcTemplate.update(sql, user.getAccount(), user.getPassword(), user.getEmail(), user.getId());
+    }
+
+    /**
+     * 조회한 시점의 version과 같을 때만 수정한다.
+     * 다른 트랜잭션이 먼저 수정했다면 false를 반환한다.
+     */
+    public boolean updateIfVersionMatches(final Connection connection, final User user) {
+        final var sql = "update users set account = ?, password = ?, email = ?, version = version + 1 where id = ? and version = ?";
+        final var updated = jdbcTemplate.update(connection, sql,
+                user.getAccount(), user.getPassword(), user.getEmail(), user.getId(), user.getVersion());
+        return updated == 1;
+    }
+
     public void updatePasswordGreaterThan(final Connection connection, final String password, final long id) {
-        final var sql = "update users set password = ? where id >= ?";
+        final var sql = "update users set password = ?, version = version + 1 where id >= ?";
         jdbcTemplate.update(connection, sql, password, id);
     }
 
     public User findById(final Connection connection, final Long id) {
-        final var sql = "select id, account, password, email from users where id = ?";
+        final var sql = "select id, account, password, email, version from users where id = ?";
         return jdbcTemplate.queryForObject(connection, sql, createRowMapper(), id);
     }
 
+    public User findById(final Long id) {
+        final var sql = "select id, account, password, email, version from users where id = ?";
+        return jdbcTemplate.queryForObject(sql, createRowMapper(), id);
+    }
+
     public User findByAccount(final Connection connection, final String account) {
-        final var sql = "select id, account, password, email from users where account = ?";
+        final var sql = "select id, account, password, email, version from users where account = ?";
         return jdbcTemplate.queryForObject(connection, sql, createRowMapper(), account);
     }
 
+    public User findByAccount(final String account) {
+        final var sql = "select id, account, password, email, version from users where account = ?";
+        return jdbcTemplate.queryForObject(sql, createRowMapper(), account);
+    }
+
     public List<User> findGreaterThan(final Connection connection, final long id) {
-        final var sql = "select id, account, password, email from users where id >= ?";
+        final var sql = "select id, account, password, email, version from users where id >= ?";
         return jdbcTemplate.query(connection, sql, createRowMapper(), id);
     }
 
     public List<User> findByAccountGreaterThan(final Connection connection, final String account) {
-        final var sql = "select id, account, password, email from users where account >= ?";
+        final var sql = "select id, account, password, email, version from users where account >= ?";
         return jdbcTemplate.query(connection, sql, createRowMapper(), account);
     }
 
     public List<User> findAll(final Connection connection) {
-        final var sql = "select id, account, password, email from users";
+        final var sql = "select id, account, password, email, version from users";
         return jdbcTemplate.query(connection, sql, createRowMapper());
     }
 
+    public List<User> findAll() {
+        final var sql = "select id, account, password, email, version from users";
+        return jdbcTemplate.query(sql, createRowMapper());
+    }
+
+    public Stream<User> streamAll(final Connection connection) {
+        final var sql = "select id, account, password, email, version from users";
+        return jdbcTemplate.queryForStream(connection, sql, createRowMapper());
+    }
+
     private static RowMapper<User> createRowMapper() {
-        return (final var rs) -> new User(
-                rs.getLong("id"),
-                rs.getString("account"),
-                rs.getString("password"),
-                rs.getString("email"));
+        return RowMapperFactory.of(User.class);
     }
 }
@@ -0,0 +1,15 @@
+package transaction.stage1.benchmark;
+
+import java.util.concurrent.atomic.LongAdder;
+
+class BenchmarkCounters {
+
+    final LongAdder lockWaits = new LongAdder();
+    final LongAdder deadlocks = new LongAdder();
+    final LongAdder retries = new LongAdder();
+    final LongAdder gaveUp = new LongAdder();
+    final LongAdder readerTransactions = new LongAdder();
+    final LongAdder dirtyReads = new LongAdder();
+    final LongAdder nonRepeatableReads = new LongAdder();
+    final LongAdder phantomReads = new LongAdder();
+}
@@ -0,0 +1,255 @@
+package transaction.stage1.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import transaction.stage1.User;
+import transaction.stage1.UserDao;
+import transaction.stage1.jdbc.CannotAcquireLockException;
+import transaction.stage1.jdbc.JdbcTemplate;
+import transaction.stage1.jdbc.KeyHolder;
+import transaction.stage1.jdbc.TransactionTemplate;
+import transaction.stage1.jdbc.TransientDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 격리 레벨마다 reader, writer 스레드를 동시에 실행해서 처리량, 지연 시간, 락 대기, 데드락, 이상 현상 발생 비율을 측정한다.
+ *
+ * writer는 아래 세 가지 작업 중 하나를 무작위로 실행한다.
+ * - hot user의 비밀번호를 dirty 값으로 바꾸고 롤백한다. (dirty read 유발)
+ * - hot user의 비밀번호를 바꾸고 커밋한다. (non-repeatable read 유발)
+ * - 새로운 user를 추가하고 커밋한다. (phantom read 유발)
+ *
+ * reader는 한 트랜잭션 안에서 같은 user와 범위를 두 번 조회하고 결과를 비교한다.
+ *
+ * 락 대기 시간 초과(CannotAcquireLockException)는 lock wait, 그 밖의 일시적인 예외는 deadlock으로 집계하고 다시 시도한다.
+ * 재시도를 모두 실패한 작업은 처리량과 지연 시간에 넣지 않고 gave up으로 따로 센다.
+ */
+public class IsolationLevelBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(IsolationLevelBenchmark.class);
+
+    public static final int[] ISOLATION_LEVELS = {
+            Connection.TRANSACTION_READ_UNCOMMITTED,
+            Connection.TRANSACTION_READ_COMMITTED,
+            Connection.TRANSACTION_REPEATABLE_READ,
+            Connection.TRANSACTION_SERIALIZABLE
+    };
+
+    private static final String DIRTY_PREFIX = "dirty-";
+    private static final int HOT_USERS = 8;
+    private static final int MAX_RETRIES = 3;
+
+    private final DataSource dataSource;
+    private final UserDao userDao;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int readers;
+    private final int writers;
+    private final Duration duration;
+
+    public IsolationLevelBenchmark(final DataSource dataSource, final int readers, final int writers, final Duration duration) {
+        this.dataSource = dataSource;
+        this.userDao = new UserDao(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(dataSource);
+        this.readers = readers;
+        this.writers = writers;
+        this.duration = duration;
+    }
+
+    public List<IsolationLevelResult> runAll() {
+        final var results = new ArrayList<IsolationLevelResult>();
+        for (final int isolationLevel : ISOLATION_LEVELS) {
+            results.add(run(isolationLevel));
+        }
+        log.info("\n{}", toTable(results));
+        return results;
+    }
+
+    public IsolationLevelResult run(final int isolationLevel) {
+        final var hotUserIds = resetUsers();
+        final var counters = new BenchmarkCounters();
+        final var recorders = new ArrayList<LatencyRecorder>();
+        final var threads = new ArrayList<Thread>();
+        final var start = new CountDownLatch(1);
+        final var deadline = new long[1];
+
+        for (int i = 0; i < readers + writers; i++) {
+            final var recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            final var reader = i < readers;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                while (System.nanoTime() < deadline[0]) {
+                    final var hotUserId = hotUserIds.get(ThreadLocalRandom.current().nextInt(hotUserIds.size()));
+                    final var begin = System.nanoTime();
+                    final boolean completed;
+                    if (reader) {
+                        completed = executeWithRetry(() -> read(isolationLevel, hotUserId, counters), counters);
+                    } else {
+                        completed = executeWithRetry(() -> write(isolationLevel, hotUserId), counters);
+                    }
+                    if (completed) {
+                        recorder.record(System.nanoTime() - begin);
+                    }
+                }
+            }, (reader ? "reader-" : "writer-") + i));
+        }
+
+        threads.forEach(Thread::start);
+        final var begin = System.nanoTime();
+        deadline[0] = begin + duration.toNanos();
+        start.countDown();
+        threads.forEach(IsolationLevelBenchmark::joinQuietly);
+        final var elapsed = System.nanoTime() - begin;
+
+        final var merged = new LatencyRecorder();
+        recorders.forEach(merged::merge);
+        return new IsolationLevelResult(isolationLevel, elapsed, merged, counters);
+    }
+
+    public static String toTable(final List<IsolationLevelResult> results) {
+        final var header = IsolationLevelResult.header();
+        return header + "\n" + "-".repeat(header.length()) + "\n" + results.stream()
+                .map(IsolationLevelResult::toRow)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private List<Long> resetUsers() {
+        jdbcTemplate.update("delete from users");
+        final var users = IntStream.range(0, HOT_USERS)
+                .mapToObj(i -> new User("hot" + i, "password", "hot" + i + "@woowahan.com"))
+                .collect(Collectors.toList());
+        final var keyHolder = new KeyHolder();
+        transactionTemplate.execute(connection -> {
+            userDao.insertAll(connection, users, keyHolder);
+            return null;
+        });
+        return keyHolder.getKeys();
+    }
+
+    private void read(final int isolationLevel, final long hotUserId, final BenchmarkCounters counters) {
+        transactionTemplate.execute(isolationLevel, connection -> {
+            final var first = userDao.findById(connection, hotUserId);
+            final var firstCount = userDao.findGreaterThan(connection, hotUserId).size();
+            sleepQuietly();
+            final var second = userDao.findById(connection, hotUserId);
+            final var secondCount = userDao.findGreaterThan(connection, hotUserId).size();
+
+            counters.readerTransactions.increment();
+            if (isDirty(first) || isDirty(second)) {
+                counters.dirtyReads.increment();
+            }
+            if (!first.getPassword().equals(second.getPassword())) {
+                counters.nonRepeatableReads.increment();
+            }
+            if (firstCount != secondCount) {
+                counters.phantomReads.increment();
+            }
+            return null;
+        });
+    }
+
+    private void write(final int isolationLevel, final long hotUserId) {
+        final var operation = ThreadLocalRandom.current().nextInt(3);
+        if (operation == 0) {
+            writeAndRollback(isolationLevel, hotUserId);
+            return;
+        }
+        transactionTemplate.execute(isolationLevel, connection -> {
+            if (operation == 1) {
+                final var user = userDao.findById(connection, hotUserId);
+                user.changePassword("password-" + System.nanoTime());
+                userDao.update(connection, user);
+            } else {
+                userDao.insert(connection, new User("phantom", "password", "phantom@woowahan.com"));
+            }
+            return null;
+        });
+    }
+
+    private void writeAndRollback(final int isolationLevel, final long hotUserId) {
+        try {
+            transactionTemplate.execute(isolationLevel, connection -> {
+                final var user = userDao.findById(connection, hotUserId);
+                user.changePassword(DIRTY_PREFIX + System.nanoTime());
+                userDao.update(connection, user);
+                sleepQuietly();
+                throw new RollbackSignal();
+            });
+        } catch (RollbackSignal ignored) {
+        }
+    }
+
+    // 일시적인 예외인지는 SQLExceptionTranslator가 정한다. 재시도를 모두 실패하면 false를 반환한다.
+    private boolean executeWithRetry(final Runnable unitOfWork, final BenchmarkCounters counters) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                unitOfWork.run();
+                return true;
+            } catch (CannotAcquireLockException e) {
+                counters.lockWaits.increment();
+                if (giveUp(attempt, counters, e)) {
+                    return false;
+                }
+            } catch (TransientDataAccessException e) {
+                counters.deadlocks.increment();
+                if (giveUp(attempt, counters, e)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private static boolean giveUp(final int attempt, final BenchmarkCounters counters, final TransientDataAccessException e) {
+        if (attempt == MAX_RETRIES) {
+            log.debug("Give up after {} retries", attempt, e);
+            counters.gaveUp.increment();
+            return true;
+        }
+        counters.retries.increment();
+        return false;
+    }
+
+    private static boolean isDirty(final User user) {
+        return user != null && user.getPassword().startsWith(DIRTY_PREFIX);
+    }
+
+    private static void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinQuietly(final Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RollbackSignal extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,46 @@
+package transaction.stage1.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import transaction.DatabasePopulatorUtils;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 격리 레벨을 낮추기 전에 IsolationLevelBenchmark로 H2에서 처리량과 이상 현상 발생 비율을 직접 측정해보자.
+ * 결과 표는 로그로 출력된다. duration, reader, writer 수를 바꿔가며 실행해보자.
+ */
+class IsolationLevelBenchmarkTest {
+
+    private static final int READERS = 4;
+    private static final int WRITERS = 2;
+
+    @Test
+    void compareIsolationLevels() {
+        try (final var dataSource = createH2DataSource()) {
+            DatabasePopulatorUtils.execute(dataSource);
+            final var benchmark = new IsolationLevelBenchmark(dataSource, READERS, WRITERS, Duration.ofMillis(500));
+
+            final var results = benchmark.runAll();
+
+            assertThat(results).hasSize(4);
+            assertThat(results).allSatisfy(result -> assertThat(result.getTransactions()).isPositive());
+            assertThat(results)
+                    .filteredOn(result -> result.getIsolationLevel() != Connection.TRANSACTION_READ_UNCOMMITTED)
+                    .allSatisfy(result -> assertThat(result.getDirtyReads()).isZero());
+        }
+    }
+
+    private static HikariDataSource createH2DataSource() {
+        final var config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:isolation;DB_CLOSE_DELAY=-1;MODE=MYSQL;LOCK_TIMEOUT=100");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(READERS + WRITERS + 1);
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,106 @@
+package transaction.stage1.benchmark;
+
+import java.sql.Connection;
+
+public class IsolationLevelResult {
+
+    private final int isolationLevel;
+    private final long elapsedNanos;
+    private final int transactions;
+    private final double p50Millis;
+    private final double p99Millis;
+    private final long lockWaits;
+    private final long deadlocks;
+    private final long retries;
+    private final long gaveUp;
+    private final long readerTransactions;
+    private final long dirtyReads;
+    private final long nonRepeatableReads;
+    private final long phantomReads;
+
+    IsolationLevelResult(final int isolationLevel, final long elapsedNanos, final LatencyRecorder latencies,
+                         final BenchmarkCounters counters) {
+        this.isolationLevel = isolationLevel;
+        this.elapsedNanos = elapsedNanos;
+        this.transactions = latencies.count();
+        this.p50Millis = latencies.percentileMillis(50);
+        this.p99Millis = latencies.percentileMillis(99);
+        this.lockWaits = counters.lockWaits.sum();
+        this.deadlocks = counters.deadlocks.sum();
+        this.retries = counters.retries.sum();
+        this.gaveUp = counters.gaveUp.sum();
+        this.readerTransactions = counters.readerTransactions.sum();
+        this.dirtyReads = counters.dirtyReads.sum();
+        this.nonRepeatableReads = counters.nonRepeatableReads.sum();
+        this.phantomReads = counters.phantomReads.sum();
+    }
+
+    public static String header() {
+        return String.format("%-16s | %10s | %8s | %8s | %9s | %9s | %7s | %7s | %7s | %7s | %7s",
+                "Isolation level", "tx/s", "p50(ms)", "p99(ms)", "lock wait", "deadlock", "retry", "gave up",
+                "dirty", "non-rep", "phantom");
+    }
+
+    public String toRow() {
+        return String.format("%-16s | %10.1f | %8.3f | %8.3f | %9d | %9d | %7d | %7d | %6.2f%% | %6.2f%% | %6.2f%%",
+                name(isolationLevel), getThroughput(), p50Millis, p99Millis, lockWaits, deadlocks, retries, gaveUp,
+                rate(dirtyReads), rate(nonRepeatableReads), rate(phantomReads));
+    }
+
+    private double rate(final long anomalies) {
+        if (readerTransactions == 0) {
+            return 0;
+        }
+        return anomalies * 100.0 / readerTransactions;
+    }
+
+    public static String name(final int isolationLevel) {
+        switch (isolationLevel) {
+            case Connection.TRANSACTION_READ_UNCOMMITTED:
+                return "Read Uncommitted";
+            case Connection.TRANSACTION_READ_COMMITTED:
+                return "Read Committed";
+            case Connection.TRANSACTION_REPEATABLE_READ:
+                return "Repeatable Read";
+            case Connection.TRANSACTION_SERIALIZABLE:
+                return "Serializable";
+            default:
+                return "None";
+        }
+    }
+
+    public int getIsolationLevel() {
+        return isolationLevel;
+    }
+
+    /**
+     * 완료한 트랜잭션만 센다. 재시도 횟수를 모두 써서 포기한 작업은 getGaveUp()으로 따로 센다.
+     */
+    public double getThroughput() {
+        return transactions / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    public int getTransactions() {
+        return transactions;
+    }
+
+    public long getGaveUp() {
+        return gaveUp;
+    }
+
+    public long getReaderTransactions() {
+        return readerTransactions;
+    }
+
+    public long getDirtyReads() {
+        return dirtyReads;
+    }
+
+    public long getNonRepeatableReads() {
+        return nonRepeatableReads;
+    }
+
+    public long getPhantomReads() {
+        return phantomReads;
+    }
+}
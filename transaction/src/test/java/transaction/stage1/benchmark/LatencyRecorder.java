@@ -0,0 +1,39 @@
+package transaction.stage1.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * 스레드 하나가 측정한 지연 시간(ns)을 모은다. 스레드마다 따로 만들고 끝난 뒤에 merge 한다.
+ */
+class LatencyRecorder {
+
+    private long[] values = new long[1024];
+    private int size;
+
+    void record(final long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+    }
+
+    void merge(final LatencyRecorder other) {
+        for (int i = 0; i < other.size; i++) {
+            record(other.values[i]);
+        }
+    }
+
+    int count() {
+        return size;
+    }
+
+    double percentileMillis(final double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        final var sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        final var index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,41 @@
+package transaction.stage1.jdbc;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재시도 사이의 대기 시간을 정한다.
+ * 시도할 때마다 대기 시간의 상한을 두 배로 늘리고(최대 maxBackoff), 0 ~ 상한 사이의 임의 값(full jitter)만큼 기다린다.
+ */
+public class Backoff {
+
+    private final long baseNanos;
+    private final long maxNanos;
+
+    public Backoff(final Duration baseBackoff, final Duration maxBackoff) {
+        this.baseNanos = baseBackoff.toNanos();
+        this.maxNanos = maxBackoff.toNanos();
+    }
+
+    /**
+     * @param attempt 실패한 시도 횟수 (1부터 시작)
+     */
+    public void sleep(final int attempt) {
+        final var bound = boundNanos(attempt);
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException(e);
+        }
+    }
+
+    long boundNanos(final int attempt) {
+        final var exponential = baseNanos << Math.min(attempt - 1, 30);
+        return exponential < 0 ? maxNanos : Math.min(exponential, maxNanos);
+    }
+}
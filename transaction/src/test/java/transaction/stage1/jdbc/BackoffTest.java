@@ -0,0 +1,52 @@
+package transaction.stage1.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BackoffTest {
+
+    @Test
+    void boundDoublesEachAttemptUpToMax() {
+        final var backoff = new Backoff(Duration.ofMillis(10), Duration.ofMillis(50));
+
+        assertThat(backoff.boundNanos(1)).isEqualTo(Duration.ofMillis(10).toNanos());
+        assertThat(backoff.boundNanos(2)).isEqualTo(Duration.ofMillis(20).toNanos());
+        assertThat(backoff.boundNanos(3)).isEqualTo(Duration.ofMillis(40).toNanos());
+        assertThat(backoff.boundNanos(4)).isEqualTo(Duration.ofMillis(50).toNanos());
+    }
+
+    @Test
+    void boundDoesNotOverflowForLargeAttempts() {
+        final var backoff = new Backoff(Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        assertThat(backoff.boundNanos(Integer.MAX_VALUE)).isEqualTo(Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test
+    void zeroBaseDoesNotSleep() {
+        final var backoff = new Backoff(Duration.ZERO, Duration.ofSeconds(1));
+        Thread.currentThread().interrupt();
+        try {
+            backoff.sleep(3);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void interruptedSleepKeepsInterruptFlag() {
+        final var backoff = new Backoff(Duration.ofSeconds(1), Duration.ofSeconds(1));
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> backoff.sleep(1)).isInstanceOf(DataAccessException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
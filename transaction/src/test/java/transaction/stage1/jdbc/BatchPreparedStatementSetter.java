@@ -0,0 +1,10 @@
+package transaction.stage1.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public interface BatchPreparedStatementSetter {
+    void setValues(final PreparedStatement pstmt, final int i) throws SQLException;
+
+    int getBatchSize();
+}
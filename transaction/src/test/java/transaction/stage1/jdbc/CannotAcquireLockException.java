@@ -0,0 +1,12 @@
+package transaction.stage1.jdbc;
+
+/**
+ * 락 대기 시간이 초과되어 실패한 예외. 데드락이나 직렬화 실패와 구분해서 집계할 때 사용한다.
+ */
+public class CannotAcquireLockException extends TransientDataAccessException {
+    private static final long serialVersionUID = 1L;
+
+    public CannotAcquireLockException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,28 @@
+package transaction.stage1.jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public abstract class DataSourceUtils {
+
+    private DataSourceUtils() {}
+
+    public static Connection getConnection(final DataSource dataSource) throws SQLException {
+        final var connection = TransactionSynchronizationManager.getResource(dataSource);
+        if (connection != null) {
+            return connection;
+        }
+        return dataSource.getConnection();
+    }
+
+    // 트랜잭션에 바인딩된 커넥션은 트랜잭션이 끝날 때 TransactionTemplate이 닫는다.
+    public static void releaseConnection(final Connection connection, final DataSource dataSource) {
+        if (connection == null || connection == TransactionSynchronizationManager.getResource(dataSource)) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {}
+    }
+}
@@ -6,62 +6,175 @@ import org.slf4j.LoggerFactory;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class JdbcTemplate {
 
     private static final Logger log = LoggerFactory.getLogger(JdbcTemplate.class);
 
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_FETCH_SIZE = 100;
+
     private final DataSource dataSource;
+    private final int batchSize;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private StatementCache statementCache;
 
     public JdbcTemplate(final DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    public JdbcTemplate(final DataSource dataSource, final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive : " + batchSize);
+        }
         this.dataSource = dataSource;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 스트리밍 조회(queryForStream, queryForEach)에서 한 번에 가져올 행 수.
+     * MySQL은 useCursorFetch=true 옵션이 있어야 fetch size만큼 끊어서 가져온다.
+     */
+    public void setFetchSize(final int fetchSize) {
+        this.fetchSize = fetchSize;
     }
 
-    public void update(final Connection connection, final String sql, final PreparedStatementSetter pss) throws DataAccessException {
-        try (final var pstmt = connection.prepareStatement(sql)) {
+    /**
+     * 호출하는 쪽에서 커넥션을 넘겨주는 메서드(update, query, batchUpdate)에서 PreparedStatement를 재사용한다.
+     * 설정하지 않으면 매번 prepareStatement를 호출하고 닫는다.
+     */
+    public void setStatementCache(final StatementCache statementCache) {
+        this.statementCache = statementCache;
+    }
+
+    public int update(final Connection connection, final String sql, final PreparedStatementSetter pss) throws DataAccessException {
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = prepareStatement(connection, sql);
             pss.setParameters(pstmt);
-            pstmt.executeUpdate();
+            return pstmt.executeUpdate();
         } catch (SQLException e) {
-            throw new DataAccessException(e);
+            throw SQLExceptionTranslator.translate(e);
+        } finally {
+            releaseStatement(pstmt);
         }
     }
 
-    public void update(final Connection connection, final String sql, final Object... parameters) {
-        update(connection, sql, createPreparedStatementSetter(parameters));
+    public int update(final Connection connection, final String sql, final Object... parameters) {
+        return update(connection, sql, createPreparedStatementSetter(parameters));
     }
 
-    public void update(final String sql, final PreparedStatementSetter pss) throws DataAccessException {
-        try (final var conn = dataSource.getConnection();
-             final var pstmt = conn.prepareStatement(sql)) {
-            pss.setParameters(pstmt);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new DataAccessException(e);
+    public int update(final String sql, final PreparedStatementSetter pss) throws DataAccessException {
+        final var conn = getConnection();
+        try {
+            return update(conn, sql, pss);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
         }
     }
 
-    public void update(final String sql, final Object... parameters) {
-        update(sql, createPreparedStatementSetter(parameters));
+    public int update(final String sql, final Object... parameters) {
+        return update(sql, createPreparedStatementSetter(parameters));
     }
 
     public void update(final PreparedStatementCreator psc, final KeyHolder holder) {
-        try (final var conn = dataSource.getConnection();
-             final var ps = psc.createPreparedStatement(conn)) {
+        final var conn = getConnection();
+        try {
+            update(conn, psc, holder);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+    }
+
+    public void update(final Connection connection, final PreparedStatementCreator psc, final KeyHolder holder) {
+        try (final var ps = psc.createPreparedStatement(connection)) {
             ps.executeUpdate();
+            extractGeneratedKeys(ps, holder);
+        } catch (SQLException e) {
+            throw SQLExceptionTranslator.translate(e);
+        }
+    }
 
-            final var rs = ps.getGeneratedKeys();
-            if (rs.next()) {
+    /**
+     * psc는 Statement.RETURN_GENERATED_KEYS로 PreparedStatement를 만들어야 한다.
+     * 배치를 실행할 때마다 생성된 키를 holder에 순서대로 추가한다.
+     */
+    public int[] batchUpdate(final Connection connection, final PreparedStatementCreator psc, final BatchPreparedStatementSetter bpss, final KeyHolder holder) {
+        try (final var ps = psc.createPreparedStatement(connection)) {
+            return executeBatch(ps, bpss, holder);
+        } catch (SQLException e) {
+            throw SQLExceptionTranslator.translate(e);
+        }
+    }
+
+    private void extractGeneratedKeys(final PreparedStatement ps, final KeyHolder holder) throws SQLException {
+        try (final var rs = ps.getGeneratedKeys()) {
+            while (rs.next()) {
                 long generatedKey = rs.getLong(1);
                 log.debug("Generated Key : {}", generatedKey);
-                holder.setId(generatedKey);
+                holder.addKey(generatedKey);
             }
-            rs.close();
+        }
+    }
+
+    public int[] batchUpdate(final Connection connection, final String sql, final BatchPreparedStatementSetter bpss) throws DataAccessException {
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = prepareStatement(connection, sql);
+            return executeBatch(pstmt, bpss, null);
         } catch (SQLException e) {
-            throw new DataAccessException(e);
+            throw SQLExceptionTranslator.translate(e);
+        } finally {
+            releaseStatement(pstmt);
+        }
+    }
+
+    public int[] batchUpdate(final Connection connection, final String sql, final List<Object[]> batchArgs) {
+        return batchUpdate(connection, sql, createBatchPreparedStatementSetter(batchArgs));
+    }
+
+    public int[] batchUpdate(final String sql, final BatchPreparedStatementSetter bpss) throws DataAccessException {
+        final var conn = getConnection();
+        try {
+            return batchUpdate(conn, sql, bpss);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+    }
+
+    public int[] batchUpdate(final String sql, final List<Object[]> batchArgs) {
+        return batchUpdate(sql, createBatchPreparedStatementSetter(batchArgs));
+    }
+
+    // batchSize 단위로 나눠서 executeBatch를 호출하고, 각 행의 update count를 순서대로 모아서 반환한다.
+    // holder가 있으면 배치마다 생성된 키도 함께 모은다.
+    private int[] executeBatch(final PreparedStatement pstmt, final BatchPreparedStatementSetter bpss, final KeyHolder holder) throws SQLException {
+        final var totalSize = bpss.getBatchSize();
+        final var rowsAffected = new int[totalSize];
+        var executed = 0;
+        for (int i = 0; i < totalSize; i++) {
+            bpss.setValues(pstmt, i);
+            pstmt.addBatch();
+            if ((i + 1) % batchSize == 0 || i == totalSize - 1) {
+                final var counts = pstmt.executeBatch();
+                System.arraycopy(counts, 0, rowsAffected, executed, counts.length);
+                executed += counts.length;
+                if (holder != null) {
+                    extractGeneratedKeys(pstmt, holder);
+                }
+                log.debug("Executed batch : {}/{}", executed, totalSize);
+            }
         }
+        return rowsAffected;
     }
 
     public <T> T queryForObject(final Connection connection, final String sql, final RowMapper<T> rm, final PreparedStatementSetter pss) {
@@ -76,12 +189,25 @@ public class JdbcTemplate {
         return queryForObject(connection, sql, rm, createPreparedStatementSetter(parameters));
     }
 
+    public <T> T queryForObject(final String sql, final RowMapper<T> rm, final Object... parameters) {
+        final var conn = getConnection();
+        try {
+            return queryForObject(conn, sql, rm, parameters);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+    }
+
     public <T> List<T> query(final Connection connection, final String sql, final RowMapper<T> rm, final PreparedStatementSetter pss) throws DataAccessException {
-        try (final var pstmt = connection.prepareStatement(sql)) {
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = prepareStatement(connection, sql);
             pss.setParameters(pstmt);
             return mapResultSetToObject(rm, pstmt);
         } catch (SQLException e) {
-            throw new DataAccessException(e);
+            throw SQLExceptionTranslator.translate(e);
+        } finally {
+            releaseStatement(pstmt);
         }
     }
 
@@ -93,7 +219,7 @@ public class JdbcTemplate {
             }
             return list;
         } catch (SQLException e) {
-            throw new DataAccessException(e);
+            throw SQLExceptionTranslator.translate(e);
         }
     }
 
@@ -101,6 +227,151 @@ public class JdbcTemplate {
         return query(connection, sql, rm, createPreparedStatementSetter(parameters));
     }
 
+    public <T> List<T> query(final String sql, final RowMapper<T> rm, final Object... parameters) {
+        final var conn = getConnection();
+        try {
+            return query(conn, sql, rm, parameters);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+    }
+
+    /**
+     * RowMapper를 받는 query와 람다로 구분할 수 없으므로(둘 다 ResultSet 하나를 받는다) 이름을 따로 둔다.
+     */
+    public void queryForEach(final Connection connection, final String sql, final RowCallbackHandler rch, final PreparedStatementSetter pss) throws DataAccessException {
+        try (final var pstmt = prepareForwardOnlyStatement(connection, sql)) {
+            pss.setParameters(pstmt);
+            try (final var rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rch.processRow(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw SQLExceptionTranslator.translate(e);
+        }
+    }
+
+    public void queryForEach(final Connection connection, final String sql, final RowCallbackHandler rch, final Object... parameters) {
+        queryForEach(connection, sql, rch, createPreparedStatementSetter(parameters));
+    }
+
+    /**
+     * 결과를 리스트에 모으지 않고 next()를 호출할 때마다 한 행씩 매핑한다.
+     * 반환한 Stream은 반드시 close 해야 ResultSet, PreparedStatement가 닫힌다. (try-with-resources 권장)
+     * connection은 호출한 쪽에서 관리한다.
+     */
+    public <T> Stream<T> queryForStream(final Connection connection, final String sql, final RowMapper<T> rm, final PreparedStatementSetter pss) throws DataAccessException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = prepareForwardOnlyStatement(connection, sql);
+            pss.setParameters(pstmt);
+            rs = pstmt.executeQuery();
+            final var resultSet = rs;
+            final var statement = pstmt;
+            return StreamSupport.stream(new ResultSetSpliterator<>(resultSet, rm), false)
+                    .onClose(() -> closeQuietly(resultSet, statement));
+        } catch (SQLException e) {
+            closeQuietly(rs, pstmt);
+            throw SQLExceptionTranslator.translate(e);
+        }
+    }
+
+    public <T> Stream<T> queryForStream(final Connection connection, final String sql, final RowMapper<T> rm, final Object... parameters) {
+        return queryForStream(connection, sql, rm, createPreparedStatementSetter(parameters));
+    }
+
+    // TransactionTemplate이 현재 스레드에 바인딩한 커넥션이 있으면 그 커넥션을 사용한다.
+    private Connection getConnection() {
+        try {
+            return DataSourceUtils.getConnection(dataSource);
+        } catch (SQLException e) {
+            throw SQLExceptionTranslator.translate(e);
+        }
+    }
+
+    private PreparedStatement prepareStatement(final Connection connection, final String sql) throws SQLException {
+        if (statementCache == null) {
+            return connection.prepareStatement(sql);
+        }
+        return statementCache.prepareStatement(connection, sql);
+    }
+
+    // 캐시된 statement는 닫지 않고 파라미터와 실행하지 못한 배치를 비워서 다음 호출에서 재사용한다.
+    private void releaseStatement(final PreparedStatement pstmt) {
+        if (pstmt == null) {
+            return;
+        }
+        try {
+            if (statementCache == null) {
+                pstmt.close();
+                return;
+            }
+            pstmt.clearParameters();
+            pstmt.clearBatch();
+        } catch (SQLException ignored) {}
+    }
+
+    private PreparedStatement prepareForwardOnlyStatement(final Connection connection, final String sql) throws SQLException {
+        final var pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(fetchSize);
+        return pstmt;
+    }
+
+    private static void closeQuietly(final ResultSet rs, final PreparedStatement pstmt) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+        } catch (SQLException ignored) {}
+
+        try {
+            if (pstmt != null) {
+                pstmt.close();
+            }
+        } catch (SQLException ignored) {}
+    }
+
+    private static class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final ResultSet rs;
+        private final RowMapper<T> rm;
+
+        ResultSetSpliterator(final ResultSet rs, final RowMapper<T> rm) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+            this.rm = rm;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(rm.mapRow(rs));
+                return true;
+            } catch (SQLException e) {
+                throw SQLExceptionTranslator.translate(e);
+            }
+        }
+    }
+
+    private BatchPreparedStatementSetter createBatchPreparedStatementSetter(final List<Object[]> batchArgs) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(final PreparedStatement pstmt, final int i) throws SQLException {
+                createPreparedStatementSetter(batchArgs.get(i)).setParameters(pstmt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batchArgs.size();
+            }
+        };
+    }
+
     private PreparedStatementSetter createPreparedStatementSetter(final Object... parameters) {
         return pstmt -> {
             for (int i = 0; i < parameters.length; i++) {
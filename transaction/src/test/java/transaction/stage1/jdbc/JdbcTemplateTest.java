@@ -0,0 +1,236 @@
+package transaction.stage1.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import transaction.DatabasePopulatorUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 직접 구현한 JdbcTemplate이 실제로 몇 번 db에 요청하는지 H2로 확인한다.
+ */
+class JdbcTemplateTest {
+
+    private static final String INSERT_SQL = "insert into users (account, password, email) values (?, ?, ?)";
+
+    private DataSource dataSource;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        final var jdbcDataSource = new JdbcDataSource();
+        jdbcDataSource.setUrl("jdbc:h2:mem:jdbc-template;DB_CLOSE_DELAY=-1;MODE=MYSQL;");
+        jdbcDataSource.setUser("sa");
+        jdbcDataSource.setPassword("");
+        this.dataSource = jdbcDataSource;
+        DatabasePopulatorUtils.execute(dataSource);
+        this.connection = dataSource.getConnection();
+        connection.createStatement().execute("truncate table users restart identity");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void batchUpdateExecutesOneBatchPerBatchSize() {
+        final var recorder = new StatementRecorder();
+        final var jdbcTemplate = new JdbcTemplate(dataSource, 2);
+
+        final var rowsAffected = jdbcTemplate.batchUpdate(recorder.wrap(connection), INSERT_SQL, List.of(
+                new Object[]{"gugu", "password", "gugu@woowahan.com"},
+                new Object[]{"hkkang", "password", "hkkang@woowahan.com"},
+                new Object[]{"brown", "password", "brown@woowahan.com"},
+                new Object[]{"pobi", "password", "pobi@woowahan.com"},
+                new Object[]{"neo", "password", "neo@woowahan.com"}));
+
+        assertThat(rowsAffected).containsExactly(1, 1, 1, 1, 1);
+        assertThat(recorder.executeBatchCount()).isEqualTo(3);
+        assertThat(countUsers()).isEqualTo(5);
+    }
+
+    @Test
+    void emptyBatchDoesNotExecute() {
+        final var recorder = new StatementRecorder();
+        final var jdbcTemplate = new JdbcTemplate(dataSource, 2);
+
+        final var rowsAffected = jdbcTemplate.batchUpdate(recorder.wrap(connection), INSERT_SQL, List.of());
+
+        assertThat(rowsAffected).isEmpty();
+        assertThat(recorder.executeBatchCount()).isZero();
+    }
+
+    @Test
+    void closingStreamClosesStatement() throws SQLException {
+        insertUsers(3);
+        final var recorder = new StatementRecorder();
+        final var jdbcTemplate = new JdbcTemplate(dataSource);
+
+        try (final var accounts = jdbcTemplate.queryForStream(recorder.wrap(connection),
+                "select account from users order by id", rs -> rs.getString(1))) {
+            assertThat(accounts.limit(2).collect(Collectors.toList())).containsExactly("user0", "user1");
+            assertThat(recorder.statements()).singleElement().satisfies(this::assertOpen);
+        }
+
+        assertThat(recorder.statements()).singleElement().satisfies(this::assertClosed);
+        assertThat(connection.isClosed()).isFalse();
+    }
+
+    @Test
+    void closingStreamAfterMappingFailureClosesStatement() throws SQLException {
+        insertUsers(1);
+        final var recorder = new StatementRecorder();
+        final var jdbcTemplate = new JdbcTemplate(dataSource);
+        final RowMapper<String> failingMapper = rs -> rs.getString("missing");
+
+        try (final var accounts = jdbcTemplate.queryForStream(recorder.wrap(connection), "select account from users", failingMapper)) {
+            assertThatThrownBy(() -> accounts.collect(Collectors.toList())).isInstanceOf(DataAccessException.class);
+        }
+
+        assertThat(recorder.statements()).singleElement().satisfies(this::assertClosed);
+    }
+
+    @Test
+    void batchUpdateCollectsGeneratedKeyPerRowAcrossBatches() {
+        final var recorder = new StatementRecorder();
+        final var jdbcTemplate = new JdbcTemplate(dataSource, 2);
+        final var accounts = List.of("gugu", "hkkang", "brown");
+        final var keyHolder = new KeyHolder();
+
+        jdbcTemplate.batchUpdate(recorder.wrap(connection),
+                conn -> conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(final PreparedStatement pstmt, final int i) throws SQLException {
+                        pstmt.setString(1, accounts.get(i));
+                        pstmt.setString(2, "password");
+                        pstmt.setString(3, accounts.get(i) + "@woowahan.com");
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return accounts.size();
+                    }
+                },
+                keyHolder);
+
+        final RowMapper<String> accountMapper = rs -> rs.getString(1);
+        assertThat(recorder.executeBatchCount()).isEqualTo(2);
+        assertThat(keyHolder.getKeys()).hasSize(3).doesNotHaveDuplicates();
+        for (int i = 0; i < accounts.size(); i++) {
+            assertThat(jdbcTemplate.queryForObject(connection, "select account from users where id = ?", accountMapper, keyHolder.getKeys().get(i)))
+                    .isEqualTo(accounts.get(i));
+        }
+    }
+
+    @Test
+    void queryWithLambdaRowMapper() {
+        insertUsers(2);
+        final var jdbcTemplate = new JdbcTemplate(dataSource);
+
+        final var ids = jdbcTemplate.query(connection, "select id from users order by id", rs -> rs.getLong(1));
+
+        assertThat(ids).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void queryForEachProcessesEveryRow() {
+        insertUsers(3);
+        final var jdbcTemplate = new JdbcTemplate(dataSource);
+        final var accounts = new ArrayList<String>();
+
+        jdbcTemplate.queryForEach(connection, "select account from users where id > ? order by id",
+                rs -> accounts.add(rs.getString(1)), 1L);
+
+        assertThat(accounts).containsExactly("user1", "user2");
+    }
+
+    private void insertUsers(final int count) {
+        final var jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update(connection, INSERT_SQL, "user" + i, "password", "user" + i + "@woowahan.com");
+        }
+    }
+
+    private void assertOpen(final PreparedStatement pstmt) {
+        assertThat(isClosed(pstmt)).isFalse();
+    }
+
+    private void assertClosed(final PreparedStatement pstmt) {
+        assertThat(isClosed(pstmt)).isTrue();
+    }
+
+    private static boolean isClosed(final PreparedStatement pstmt) {
+        try {
+            return pstmt.isClosed();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long countUsers() {
+        return new JdbcTemplate(dataSource).queryForObject(connection, "select count(*) from users", rs -> rs.getLong(1));
+    }
+
+    // 커넥션이 만든 PreparedStatement를 기록하고 executeBatch 호출 횟수를 센다.
+    private static class StatementRecorder {
+
+        private final List<PreparedStatement> statements = new ArrayList<>();
+        private final AtomicInteger executeBatchCount = new AtomicInteger();
+
+        Connection wrap(final Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                    (proxy, method, args) -> {
+                        final var result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement) {
+                            statements.add((PreparedStatement) result);
+                            return wrap((PreparedStatement) result);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement wrap(final PreparedStatement pstmt) {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        if ("executeBatch".equals(method.getName())) {
+                            executeBatchCount.incrementAndGet();
+                        }
+                        return invoke(pstmt, method, args);
+                    });
+        }
+
+        private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        int executeBatchCount() {
+            return executeBatchCount.get();
+        }
+
+        List<PreparedStatement> statements() {
+            return statements;
+        }
+    }
+}
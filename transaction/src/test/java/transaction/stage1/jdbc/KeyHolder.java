@@ -1,21 +1,37 @@
 package transaction.stage1.jdbc;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class KeyHolder {
 
-    private long id;
+    private final List<Long> keys = new ArrayList<>();
 
     public void setId(long id) {
-        this.id = id;
+        keys.clear();
+        keys.add(id);
+    }
+
+    public void addKey(long key) {
+        keys.add(key);
     }
 
     public long getId() {
-        return id;
+        if (keys.isEmpty()) {
+            return 0L;
+        }
+        return keys.get(0);
+    }
+
+    public List<Long> getKeys() {
+        return Collections.unmodifiableList(keys);
     }
 
     @Override
     public String toString() {
         return "KeyHolder{" +
-                "id=" + id +
+                "keys=" + keys +
                 '}';
     }
 }
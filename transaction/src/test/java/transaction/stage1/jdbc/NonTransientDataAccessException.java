@@ -0,0 +1,12 @@
+package transaction.stage1.jdbc;
+
+/**
+ * 다시 시도해도 같은 결과가 나오는 예외. (문법 오류, 제약 조건 위반 등)
+ */
+public class NonTransientDataAccessException extends DataAccessException {
+    private static final long serialVersionUID = 1L;
+
+    public NonTransientDataAccessException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,9 @@
+package transaction.stage1.jdbc;
+
+public class OptimisticLockingFailureException extends TransientDataAccessException {
+    private static final long serialVersionUID = 1L;
+
+    public OptimisticLockingFailureException(String message) {
+        super(message);
+    }
+}
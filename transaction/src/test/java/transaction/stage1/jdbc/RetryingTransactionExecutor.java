@@ -0,0 +1,87 @@
+package transaction.stage1.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 데드락, 직렬화 실패처럼 일시적인 예외(TransientDataAccessException)가 발생하면 트랜잭션 전체를 처음부터 다시 실행한다.
+ * 콜백은 여러 번 실행될 수 있으므로 트랜잭션 밖의 상태를 바꾸면 안 된다.
+ * 이미 진행 중인 트랜잭션에 참여하는 경우에는 바깥 트랜잭션이 롤백 여부를 결정하므로 다시 시도하지 않는다.
+ */
+public class RetryingTransactionExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryingTransactionExecutor.class);
+
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Backoff backoff;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder transientFailures = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public RetryingTransactionExecutor(final DataSource dataSource, final int maxAttempts,
+                                       final Duration baseBackoff, final Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive : " + maxAttempts);
+        }
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(dataSource);
+        this.maxAttempts = maxAttempts;
+        this.backoff = new Backoff(baseBackoff, maxBackoff);
+    }
+
+    public <T> T execute(final int isolationLevel, final TransactionCallback<T> action) {
+        executions.increment();
+        if (TransactionSynchronizationManager.hasResource(dataSource)) {
+            return transactionTemplate.execute(isolationLevel, action);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(isolationLevel, action);
+            } catch (TransientDataAccessException e) {
+                transientFailures.increment();
+                if (attempt == maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                log.debug("Retry transaction (attempt {}/{}) : {}", attempt, maxAttempts, e.getMessage());
+                retries.increment();
+                backoff.sleep(attempt);
+            }
+        }
+    }
+
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public long getTransientFailureCount() {
+        return transientFailures.sum();
+    }
+
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryingTransactionExecutor{" +
+                "executions=" + executions +
+                ", retries=" + retries +
+                ", transientFailures=" + transientFailures +
+                ", exhausted=" + exhausted +
+                '}';
+    }
+}
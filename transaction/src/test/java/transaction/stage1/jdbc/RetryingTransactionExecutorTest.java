@@ -0,0 +1,91 @@
+package transaction.stage1.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryingTransactionExecutorTest {
+
+    private static final SQLException DEADLOCK = new SQLException("deadlock", "40001", 1213);
+
+    private DataSource dataSource;
+    private RetryingTransactionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        final var jdbcDataSource = new JdbcDataSource();
+        jdbcDataSource.setUrl("jdbc:h2:mem:retrying;DB_CLOSE_DELAY=-1");
+        jdbcDataSource.setUser("sa");
+        jdbcDataSource.setPassword("");
+        this.dataSource = jdbcDataSource;
+        this.executor = new RetryingTransactionExecutor(dataSource, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    @Test
+    void retriesWholeTransactionOnTransientFailure() {
+        final var attempts = new AtomicInteger();
+
+        final var result = executor.execute(Connection.TRANSACTION_SERIALIZABLE, connection -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw DEADLOCK;
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+        assertThat(executor.getRetryCount()).isEqualTo(2);
+        assertThat(executor.getTransientFailureCount()).isEqualTo(2);
+        assertThat(executor.getExhaustedCount()).isZero();
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        final var attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.execute(Connection.TRANSACTION_SERIALIZABLE, connection -> {
+            attempts.incrementAndGet();
+            throw DEADLOCK;
+        })).isInstanceOf(TransientDataAccessException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(executor.getRetryCount()).isEqualTo(2);
+        assertThat(executor.getExhaustedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRetryNonTransientFailure() {
+        final var attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.execute(Connection.TRANSACTION_SERIALIZABLE, connection -> {
+            attempts.incrementAndGet();
+            throw new SQLException("syntax error", "42000", 1064);
+        })).isInstanceOf(NonTransientDataAccessException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(executor.getRetryCount()).isZero();
+    }
+
+    @Test
+    void doesNotRetryWhenJoiningOuterTransaction() {
+        final var attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> new TransactionTemplate(dataSource).execute(Connection.TRANSACTION_SERIALIZABLE, outer ->
+                executor.execute(Connection.TRANSACTION_SERIALIZABLE, inner -> {
+                    attempts.incrementAndGet();
+                    throw DEADLOCK;
+                }))).isInstanceOf(TransientDataAccessException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(executor.getRetryCount()).isZero();
+    }
+}
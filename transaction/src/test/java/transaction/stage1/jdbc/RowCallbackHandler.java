@@ -0,0 +1,9 @@
+package transaction.stage1.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface RowCallbackHandler {
+    void processRow(final ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,277 @@
+package transaction.stage1.jdbc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 컬럼 이름으로 생성자 파라미터나 setter를 찾아서 객체를 만드는 RowMapper를 생성한다.
+ * MethodHandle로 만든 매핑 방법은 타입과 컬럼 구성별로 캐싱해서 재사용한다.
+ *
+ * of()가 반환하는 RowMapper는 첫 행에서 ResultSetMetaData를 읽어 매핑 방법을 고르고 이후 행에도 그대로 사용한다.
+ * 컬럼 구성이 다른 쿼리에 같은 RowMapper를 재사용하면 안 되므로 쿼리마다 of()를 호출한다.
+ *
+ * 생성자 파라미터 이름으로 매핑하려면 -parameters 옵션으로 컴파일해야 한다.
+ * 컬럼 이름과 맞는 생성자도, 기본 생성자도 없으면 순서대로 추측하지 않고 DataAccessException을 던진다.
+ */
+public final class RowMapperFactory {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Class<?>, MappingPlans<?>> PLANS = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> of(final Class<T> type) {
+        return new QueryRowMapper<>((MappingPlans<T>) PLANS.computeIfAbsent(type, MappingPlans::new));
+    }
+
+    private RowMapperFactory() {}
+
+    // 쿼리 하나의 결과에만 사용하므로 첫 행에서 고른 매핑 방법을 ResultSet 없이 기억한다.
+    private static class QueryRowMapper<T> implements RowMapper<T> {
+
+        private final MappingPlans<T> plans;
+        private MappingPlan<T> plan;
+
+        QueryRowMapper(final MappingPlans<T> plans) {
+            this.plans = plans;
+        }
+
+        @Override
+        public T mapRow(final ResultSet rs) throws SQLException {
+            if (plan == null) {
+                plan = plans.resolvePlan(rs.getMetaData());
+            }
+            return plan.map(rs);
+        }
+    }
+
+    private static class MappingPlans<T> {
+
+        private final Class<T> type;
+        private final Map<String, MappingPlan<T>> plans = new ConcurrentHashMap<>();
+
+        MappingPlans(final Class<T> type) {
+            this.type = type;
+        }
+
+        private MappingPlan<T> resolvePlan(final ResultSetMetaData metaData) throws SQLException {
+            final var columnCount = metaData.getColumnCount();
+            final var labels = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+            }
+            return plans.computeIfAbsent(String.join(",", labels), ignored -> compile(labels));
+        }
+
+        private MappingPlan<T> compile(final String[] labels) {
+            final var columnIndexes = new HashMap<String, Integer>();
+            for (int i = 0; i < labels.length; i++) {
+                columnIndexes.put(normalize(labels[i]), i + 1);
+            }
+            try {
+                final var constructorPlan = compileConstructor(columnIndexes);
+                if (constructorPlan != null) {
+                    return constructorPlan;
+                }
+                return compileSetters(columnIndexes);
+            } catch (NoSuchMethodException e) {
+                throw new DataAccessException("No constructor of " + type.getName() + " matches columns " + Arrays.toString(labels)
+                        + " and no default constructor exists (compile with -parameters to map constructor parameters by name)", e);
+            } catch (IllegalAccessException e) {
+                throw new DataAccessException("Cannot create row mapper for " + type.getName(), e);
+            }
+        }
+
+        private MappingPlan<T> compileConstructor(final Map<String, Integer> columnIndexes) throws IllegalAccessException {
+            final var constructors = Arrays.stream(type.getConstructors())
+                    .filter(constructor -> constructor.getParameterCount() > 0)
+                    .sorted(Comparator.comparingInt(Constructor<?>::getParameterCount).reversed())
+                    .toArray(Constructor<?>[]::new);
+
+            for (final var constructor : constructors) {
+                final var indexes = resolveParameterIndexes(constructor, columnIndexes);
+                if (indexes != null) {
+                    return constructorPlan(constructor, indexes);
+                }
+            }
+            return null;
+        }
+
+        private int[] resolveParameterIndexes(final Constructor<?> constructor, final Map<String, Integer> columnIndexes) {
+            final var parameters = constructor.getParameters();
+            final var indexes = new int[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                if (!parameters[i].isNamePresent()) {
+                    return null;
+                }
+                final var index = columnIndexes.get(normalize(parameters[i].getName()));
+                if (index == null) {
+                    return null;
+                }
+                indexes[i] = index;
+            }
+            return indexes;
+        }
+
+        private MappingPlan<T> constructorPlan(final Constructor<?> constructor, final int[] indexes) throws IllegalAccessException {
+            final var parameterTypes = constructor.getParameterTypes();
+            final var readers = new ColumnReader[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                readers[i] = ColumnReader.of(parameterTypes[i], indexes[i]);
+            }
+            final var handle = LOOKUP.unreflectConstructor(constructor)
+                    .asType(MethodType.methodType(Object.class, toObjectTypes(parameterTypes)))
+                    .asSpreader(Object[].class, parameterTypes.length);
+            return new ConstructorPlan<>(handle, readers);
+        }
+
+        private MappingPlan<T> compileSetters(final Map<String, Integer> columnIndexes) throws IllegalAccessException, NoSuchMethodException {
+            final var constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            final var setters = new MethodHandle[columnIndexes.size()];
+            final var readers = new ColumnReader[columnIndexes.size()];
+            var count = 0;
+            for (final Method method : type.getMethods()) {
+                if (!isSetter(method)) {
+                    continue;
+                }
+                final var index = columnIndexes.get(normalize(method.getName().substring(3)));
+                if (index == null || count == setters.length) {
+                    continue;
+                }
+                setters[count] = LOOKUP.unreflect(method)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                readers[count] = ColumnReader.of(method.getParameterTypes()[0], index);
+                count++;
+            }
+            return new SetterPlan<>(constructor, Arrays.copyOf(setters, count), Arrays.copyOf(readers, count));
+        }
+
+        private static boolean isSetter(final Method method) {
+            return method.getName().startsWith("set")
+                    && method.getName().length() > 3
+                    && method.getParameterCount() == 1
+                    && !Modifier.isStatic(method.getModifiers());
+        }
+
+        private static Class<?>[] toObjectTypes(final Class<?>[] parameterTypes) {
+            final var objectTypes = new Class<?>[parameterTypes.length];
+            Arrays.fill(objectTypes, Object.class);
+            return objectTypes;
+        }
+
+        private static String normalize(final String name) {
+            return name.replace("_", "").toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private interface MappingPlan<T> {
+        T map(final ResultSet rs) throws SQLException;
+    }
+
+    private static class ConstructorPlan<T> implements MappingPlan<T> {
+
+        private final MethodHandle constructor;
+        private final ColumnReader[] readers;
+
+        ConstructorPlan(final MethodHandle constructor, final ColumnReader[] readers) {
+            this.constructor = constructor;
+            this.readers = readers;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T map(final ResultSet rs) throws SQLException {
+            final var args = new Object[readers.length];
+            for (int i = 0; i < readers.length; i++) {
+                args[i] = readers[i].read(rs);
+            }
+            try {
+                final Object instance = constructor.invokeExact(args);
+                return (T) instance;
+            } catch (SQLException | RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new DataAccessException(e);
+            }
+        }
+    }
+
+    private static class SetterPlan<T> implements MappingPlan<T> {
+
+        private final MethodHandle constructor;
+        private final MethodHandle[] setters;
+        private final ColumnReader[] readers;
+
+        SetterPlan(final MethodHandle constructor, final MethodHandle[] setters, final ColumnReader[] readers) {
+            this.constructor = constructor;
+            this.setters = setters;
+            this.readers = readers;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T map(final ResultSet rs) throws SQLException {
+            try {
+                final Object instance = constructor.invokeExact();
+                for (int i = 0; i < setters.length; i++) {
+                    setters[i].invokeExact(instance, readers[i].read(rs));
+                }
+                return (T) instance;
+            } catch (SQLException | RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new DataAccessException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+
+        Object read(final ResultSet rs) throws SQLException;
+
+        static ColumnReader of(final Class<?> type, final int index) {
+            if (type == long.class) {
+                return rs -> rs.getLong(index);
+            }
+            if (type == int.class) {
+                return rs -> rs.getInt(index);
+            }
+            if (type == boolean.class) {
+                return rs -> rs.getBoolean(index);
+            }
+            if (type == double.class) {
+                return rs -> rs.getDouble(index);
+            }
+            if (type == String.class) {
+                return rs -> rs.getString(index);
+            }
+            if (type == Long.class) {
+                return rs -> {
+                    final var value = rs.getLong(index);
+                    return rs.wasNull() ? null : value;
+                };
+            }
+            if (type == Integer.class) {
+                return rs -> {
+                    final var value = rs.getInt(index);
+                    return rs.wasNull() ? null : value;
+                };
+            }
+            return rs -> rs.getObject(index, type);
+        }
+    }
+}
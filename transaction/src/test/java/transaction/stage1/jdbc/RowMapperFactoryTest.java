@@ -0,0 +1,122 @@
+package transaction.stage1.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import transaction.DatabasePopulatorUtils;
+import transaction.stage1.User;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RowMapperFactoryTest {
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        final var jdbcDataSource = new JdbcDataSource();
+        jdbcDataSource.setUrl("jdbc:h2:mem:row-mapper;DB_CLOSE_DELAY=-1;MODE=MYSQL;");
+        jdbcDataSource.setUser("sa");
+        jdbcDataSource.setPassword("");
+        DatabasePopulatorUtils.execute(jdbcDataSource);
+        this.connection = jdbcDataSource.getConnection();
+        this.jdbcTemplate = new JdbcTemplate(jdbcDataSource);
+        connection.createStatement().execute("truncate table users restart identity");
+        jdbcTemplate.update(connection, "insert into users (account, password, email) values (?, ?, ?)", "gugu", "password", "hkkang@woowahan.com");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void mapsConstructorParametersByColumnName() {
+        final var user = jdbcTemplate.queryForObject(connection,
+                "select email, version, password, account, id from users", RowMapperFactory.of(User.class));
+
+        assertThat(user.getAccount()).isEqualTo("gugu");
+        assertThat(user.getEmail()).isEqualTo("hkkang@woowahan.com");
+        assertThat(user.getPassword()).isEqualTo("password");
+    }
+
+    @Test
+    void mapsSettersWhenNoConstructorMatches() {
+        final var account = jdbcTemplate.queryForObject(connection,
+                "select account, email as contact from users", RowMapperFactory.of(Account.class));
+
+        assertThat(account.getAccount()).isEqualTo("gugu");
+        assertThat(account.getContact()).isEqualTo("hkkang@woowahan.com");
+    }
+
+    @Test
+    void mapsInterleavedQueriesWithDifferentColumnLayouts() throws SQLException {
+        final var byId = RowMapperFactory.of(User.class);
+        final var byEmail = RowMapperFactory.of(User.class);
+
+        try (final var first = connection.createStatement().executeQuery("select id, account, password, email, version from users union all select id, account, password, email, version from users");
+             final var second = connection.createStatement().executeQuery("select email, account, password, id from users union all select email, account, password, id from users")) {
+            for (int i = 0; i < 2; i++) {
+                first.next();
+                second.next();
+                assertThat(byId.mapRow(first).getEmail()).isEqualTo("hkkang@woowahan.com");
+                assertThat(byEmail.mapRow(second).getEmail()).isEqualTo("hkkang@woowahan.com");
+            }
+        }
+    }
+
+    @Test
+    void failsInsteadOfMappingByPosition() {
+        assertThatThrownBy(() -> jdbcTemplate.queryForObject(connection,
+                "select account, email from users", RowMapperFactory.of(Pair.class)))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining(Pair.class.getName());
+    }
+
+    public static class Account {
+
+        private String account;
+        private String contact;
+
+        public void setAccount(final String account) {
+            this.account = account;
+        }
+
+        public void setContact(final String contact) {
+            this.contact = contact;
+        }
+
+        public String getAccount() {
+            return account;
+        }
+
+        public String getContact() {
+            return contact;
+        }
+    }
+
+    public static class Pair {
+
+        private final String first;
+        private final String second;
+
+        public Pair(final String first, final String second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public String getFirst() {
+            return first;
+        }
+
+        public String getSecond() {
+            return second;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package transaction.stage1.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SQLState와 벤더 에러 코드로 SQLException을 일시적인 예외와 영구적인 예외로 분류한다.
+ *
+ * SQLState 40xxx : 트랜잭션 롤백 (40001 직렬화 실패, MySQL 1213 데드락, H2 40001 데드락, 40P01 PostgreSQL 데드락)
+ * SQLState HYT00, HYT01 : 타임아웃 (H2 50200 락 대기 시간 초과 포함)
+ * MySQL : 1205 락 대기 시간 초과 (SQLState HY000)
+ * H2 : 90131 동시 수정 충돌 (SQLState 90131)
+ *
+ * 같은 에러 코드를 다른 벤더가 다른 의미로 쓸 수 있으므로 벤더 에러 코드는 그 벤더가 함께 보내는 SQLState일 때만 인정한다.
+ * 락 대기 시간 초과는 CannotAcquireLockException으로 구분한다.
+ */
+public abstract class SQLExceptionTranslator {
+
+    private static final Set<String> TRANSIENT_SQL_STATES = Set.of("HYT00", "HYT01");
+    private static final Map<Integer, Set<String>> TRANSIENT_ERROR_CODES = Map.of(
+            1205, Set.of("HY000", "40001"),
+            90131, Set.of("90131"));
+    private static final Map<Integer, Set<String>> LOCK_TIMEOUT_ERROR_CODES = Map.of(
+            1205, Set.of("HY000", "40001"),
+            50200, Set.of("HYT00"));
+
+    private SQLExceptionTranslator() {}
+
+    public static DataAccessException translate(final SQLException e) {
+        if (isLockTimeout(e)) {
+            return new CannotAcquireLockException(e);
+        }
+        if (isTransient(e)) {
+            return new TransientDataAccessException(e);
+        }
+        return new NonTransientDataAccessException(e);
+    }
+
+    public static boolean isLockTimeout(final SQLException e) {
+        return matches(LOCK_TIMEOUT_ERROR_CODES, e);
+    }
+
+    public static boolean isTransient(final SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLTransactionRollbackException) {
+            return true;
+        }
+        final var sqlState = e.getSQLState();
+        if (sqlState != null && (sqlState.startsWith("40") || TRANSIENT_SQL_STATES.contains(sqlState))) {
+            return true;
+        }
+        return matches(TRANSIENT_ERROR_CODES, e);
+    }
+
+    private static boolean matches(final Map<Integer, Set<String>> errorCodes, final SQLException e) {
+        final var sqlStates = errorCodes.get(e.getErrorCode());
+        return sqlStates != null && sqlStates.contains(e.getSQLState());
+    }
+}
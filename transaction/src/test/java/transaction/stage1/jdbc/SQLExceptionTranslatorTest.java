@@ -0,0 +1,61 @@
+package transaction.stage1.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class SQLExceptionTranslatorTest {
+
+    @Test
+    void serializationFailureStateIsTransient() {
+        assertThat(SQLExceptionTranslator.translate(new SQLException("deadlock", "40001", 1213)))
+                .isExactlyInstanceOf(TransientDataAccessException.class);
+        assertThat(SQLExceptionTranslator.translate(new SQLException("deadlock", "40P01", 0)))
+                .isExactlyInstanceOf(TransientDataAccessException.class);
+    }
+
+    @Test
+    void vendorCodeIsTransientOnlyWithVendorSqlState() {
+        assertThat(SQLExceptionTranslator.translate(new SQLException("lock wait timeout", "HY000", 1205)))
+                .isInstanceOf(CannotAcquireLockException.class);
+        assertThat(SQLExceptionTranslator.translate(new SQLException("concurrent update", "90131", 90131)))
+                .isExactlyInstanceOf(TransientDataAccessException.class);
+
+        assertThat(SQLExceptionTranslator.translate(new SQLException("syntax error", "42000", 1205)))
+                .isInstanceOf(NonTransientDataAccessException.class);
+        assertThat(SQLExceptionTranslator.translate(new SQLException("unique violation", "23505", 40001)))
+                .isInstanceOf(NonTransientDataAccessException.class);
+        assertThat(SQLExceptionTranslator.translate(new SQLException("other vendor", "22001", 50200)))
+                .isInstanceOf(NonTransientDataAccessException.class);
+    }
+
+    @Test
+    void constraintViolationIsNotTransient() {
+        assertThat(SQLExceptionTranslator.translate(new SQLException("duplicate key", "23000", 1062)))
+                .isInstanceOf(NonTransientDataAccessException.class);
+    }
+
+    @Test
+    void h2LockTimeoutIsCannotAcquireLock() throws SQLException {
+        final var dataSource = new JdbcDataSource();
+        dataSource.setUrl("jdbc:h2:mem:translator;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=50");
+        try (final var holder = dataSource.getConnection();
+             final var waiter = dataSource.getConnection()) {
+            holder.createStatement().execute("create table if not exists locks (id int primary key, amount int)");
+            holder.createStatement().execute("merge into locks values (1, 0)");
+            holder.setAutoCommit(false);
+            holder.createStatement().executeUpdate("update locks set amount = 1 where id = 1");
+
+            final var e = catchThrowableOfType(
+                    () -> waiter.createStatement().executeUpdate("update locks set amount = 2 where id = 1"),
+                    SQLException.class);
+
+            assertThat(SQLExceptionTranslator.translate(e)).isInstanceOf(CannotAcquireLockException.class);
+            holder.rollback();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package transaction.stage1.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 커넥션별로 PreparedStatement를 LRU 방식으로 캐싱한다.
+ * 같은 커넥션에서 같은 sql을 다시 실행하면 prepareStatement를 다시 호출하지 않고 재사용한다.
+ * 커넥션이 닫히면 해당 커넥션의 캐시는 다음 조회 시점에 비워진다.
+ */
+public class StatementCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCache.class);
+
+    private final int maxSize;
+    private final Map<Connection, Map<String, PreparedStatement>> statements = new WeakHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public StatementCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive : " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    public synchronized PreparedStatement prepareStatement(final Connection connection, final String sql) throws SQLException {
+        final var cached = getStatements(connection);
+        final var pstmt = cached.get(sql);
+        if (pstmt != null && !pstmt.isClosed()) {
+            hitCount.incrementAndGet();
+            return pstmt;
+        }
+        missCount.incrementAndGet();
+        final var created = connection.prepareStatement(sql);
+        cached.put(sql, created);
+        return created;
+    }
+
+    public synchronized void evict(final Connection connection) {
+        final var removed = statements.remove(connection);
+        if (removed != null) {
+            removed.values().forEach(StatementCache::closeQuietly);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private Map<String, PreparedStatement> getStatements(final Connection connection) throws SQLException {
+        if (connection.isClosed()) {
+            statements.remove(connection);
+            throw new SQLException("Connection is closed");
+        }
+        if (!statements.containsKey(connection)) {
+            evictClosedConnections();
+        }
+        return statements.computeIfAbsent(connection, ignored -> new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    log.debug("Evict statement : {}", eldest.getKey());
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    // 캐시된 statement가 커넥션을 참조하므로 WeakHashMap만으로는 닫힌 커넥션이 정리되지 않는다.
+    private void evictClosedConnections() {
+        statements.entrySet().removeIf(entry -> isClosed(entry.getKey()));
+    }
+
+    private static boolean isClosed(final Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeQuietly(final PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException ignored) {}
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCache{" +
+                "maxSize=" + maxSize +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                '}';
+    }
+}
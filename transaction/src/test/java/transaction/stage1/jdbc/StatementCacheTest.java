@@ -0,0 +1,134 @@
+package transaction.stage1.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import transaction.DatabasePopulatorUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementCacheTest {
+
+    private static final String INSERT_SQL = "insert into users (account, password, email) values (?, ?, ?)";
+
+    private DataSource dataSource;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        final var jdbcDataSource = new JdbcDataSource();
+        jdbcDataSource.setUrl("jdbc:h2:mem:statement-cache;DB_CLOSE_DELAY=-1;MODE=MYSQL;");
+        jdbcDataSource.setUser("sa");
+        jdbcDataSource.setPassword("");
+        this.dataSource = jdbcDataSource;
+        DatabasePopulatorUtils.execute(dataSource);
+        this.connection = dataSource.getConnection();
+        connection.createStatement().execute("truncate table users restart identity");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void reusesStatementOnSameConnection() throws SQLException {
+        final var statementCache = new StatementCache(10);
+
+        final var first = statementCache.prepareStatement(connection, "select 1");
+        final var second = statementCache.prepareStatement(connection, "select 1");
+
+        assertThat(second).isSameAs(first);
+        assertThat(statementCache.getMissCount()).isEqualTo(1);
+        assertThat(statementCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotShareStatementsBetweenConnections() throws SQLException {
+        final var statementCache = new StatementCache(10);
+
+        try (final var other = dataSource.getConnection()) {
+            final var first = statementCache.prepareStatement(connection, "select 1");
+            final var second = statementCache.prepareStatement(other, "select 1");
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(statementCache.getMissCount()).isEqualTo(2);
+            assertThat(statementCache.getHitCount()).isZero();
+        }
+    }
+
+    @Test
+    void closesLeastRecentlyUsedStatementBeyondMaxSize() throws SQLException {
+        final var statementCache = new StatementCache(2);
+
+        final var first = statementCache.prepareStatement(connection, "select 1");
+        final var second = statementCache.prepareStatement(connection, "select 2");
+        statementCache.prepareStatement(connection, "select 1");
+        statementCache.prepareStatement(connection, "select 3");
+
+        assertThat(second.isClosed()).isTrue();
+        assertThat(first.isClosed()).isFalse();
+        assertThat(statementCache.prepareStatement(connection, "select 2")).isNotSameAs(second);
+        assertThat(statementCache.getMissCount()).isEqualTo(4);
+        assertThat(statementCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictClosesCachedStatements() throws SQLException {
+        final var statementCache = new StatementCache(10);
+        final var pstmt = statementCache.prepareStatement(connection, "select 1");
+
+        statementCache.evict(connection);
+
+        assertThat(pstmt.isClosed()).isTrue();
+    }
+
+    @Test
+    void releasedStatementDoesNotKeepUnexecutedBatch() {
+        final var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setStatementCache(new StatementCache(10));
+
+        assertThatThrownBy(() -> jdbcTemplate.batchUpdate(connection, INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(final PreparedStatement pstmt, final int i) throws SQLException {
+                if (i == 1) {
+                    throw new SQLException("invalid row");
+                }
+                setUser(pstmt, "gugu");
+            }
+
+            @Override
+            public int getBatchSize() {
+                return 2;
+            }
+        })).isInstanceOf(DataAccessException.class);
+
+        final var rowsAffected = jdbcTemplate.batchUpdate(connection, INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(final PreparedStatement pstmt, final int i) throws SQLException {
+                setUser(pstmt, "hkkang");
+            }
+
+            @Override
+            public int getBatchSize() {
+                return 1;
+            }
+        });
+
+        assertThat(rowsAffected).containsExactly(1);
+        assertThat(jdbcTemplate.query(connection, "select account from users", rs -> rs.getString(1))).containsExactly("hkkang");
+    }
+
+    private static void setUser(final PreparedStatement pstmt, final String account) throws SQLException {
+        pstmt.setString(1, account);
+        pstmt.setString(2, "password");
+        pstmt.setString(3, account + "@woowahan.com");
+    }
+}
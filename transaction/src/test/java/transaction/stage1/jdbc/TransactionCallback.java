@@ -0,0 +1,9 @@
+package transaction.stage1.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface TransactionCallback<T> {
+    T doInTransaction(final Connection connection) throws SQLException;
+}
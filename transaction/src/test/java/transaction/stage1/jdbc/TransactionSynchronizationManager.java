@@ -0,0 +1,42 @@
+package transaction.stage1.jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 현재 스레드에서 사용 중인 커넥션을 DataSource별로 보관한다.
+ * TransactionTemplate이 트랜잭션을 시작할 때 커넥션을 바인딩하고,
+ * JdbcTemplate은 바인딩된 커넥션이 있으면 새 커넥션을 얻지 않고 그 커넥션을 사용한다.
+ */
+public abstract class TransactionSynchronizationManager {
+
+    private static final ThreadLocal<Map<DataSource, Connection>> resources = ThreadLocal.withInitial(HashMap::new);
+
+    private TransactionSynchronizationManager() {}
+
+    public static Connection getResource(final DataSource key) {
+        return resources.get().get(key);
+    }
+
+    public static boolean hasResource(final DataSource key) {
+        return resources.get().containsKey(key);
+    }
+
+    public static void bindResource(final DataSource key, final Connection value) {
+        final var previous = resources.get().putIfAbsent(key, value);
+        if (previous != null) {
+            throw new IllegalStateException("Already bound connection for " + key);
+        }
+    }
+
+    public static Connection unbindResource(final DataSource key) {
+        final var map = resources.get();
+        final var connection = map.remove(key);
+        if (map.isEmpty()) {
+            resources.remove();
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,138 @@
+package transaction.stage1.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 커넥션 하나를 현재 스레드에 바인딩하고 격리 레벨을 적용한 뒤 콜백을 실행한다.
+ * 콜백이 정상 종료하면 커밋하고, 예외가 발생하면 롤백한다.
+ * 이미 바인딩된 커넥션이 있으면 새 트랜잭션을 시작하지 않고 기존 트랜잭션에 참여한다.
+ * 격리 레벨을 지정해서 참여할 때 바깥 트랜잭션의 격리 레벨과 다르면 IllegalStateException을 던진다.
+ */
+public class TransactionTemplate {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionTemplate.class);
+
+    private final DataSource dataSource;
+
+    public TransactionTemplate(final DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 새 트랜잭션은 READ COMMITTED로 시작하고, 진행 중인 트랜잭션에는 격리 레벨과 상관없이 참여한다.
+     */
+    public <T> T execute(final TransactionCallback<T> action) {
+        final var existing = TransactionSynchronizationManager.getResource(dataSource);
+        if (existing != null) {
+            return doInExistingTransaction(existing, action);
+        }
+        return doInNewTransaction(Connection.TRANSACTION_READ_COMMITTED, action);
+    }
+
+    public <T> T execute(final int isolationLevel, final TransactionCallback<T> action) throws DataAccessException {
+        final var existing = TransactionSynchronizationManager.getResource(dataSource);
+        if (existing != null) {
+            validateIsolationLevel(existing, isolationLevel);
+            return doInExistingTransaction(existing, action);
+        }
+        return doInNewTransaction(isolationLevel, action);
+    }
+
+    private <T> T doInNewTransaction(final int isolationLevel, final TransactionCallback<T> action) {
+        final var connection = getConnection();
+        final boolean previousAutoCommit;
+        final int previousIsolationLevel;
+        try {
+            previousAutoCommit = connection.getAutoCommit();
+            previousIsolationLevel = connection.getTransactionIsolation();
+            connection.setTransactionIsolation(isolationLevel);
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            closeAfterFailure(connection, e);
+            throw SQLExceptionTranslator.translate(e);
+        } catch (RuntimeException e) {
+            closeAfterFailure(connection, e);
+            throw e;
+        }
+
+        TransactionSynchronizationManager.bindResource(dataSource, connection);
+        try {
+            final var result = action.doInTransaction(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException e) {
+            rollback(connection);
+            throw SQLExceptionTranslator.translate(e);
+        } catch (RuntimeException | Error e) {
+            rollback(connection);
+            throw e;
+        } finally {
+            TransactionSynchronizationManager.unbindResource(dataSource);
+            restoreAndClose(connection, previousAutoCommit, previousIsolationLevel);
+        }
+    }
+
+    private Connection getConnection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw SQLExceptionTranslator.translate(e);
+        }
+    }
+
+    // 트랜잭션을 시작하지 못했으면 바인딩하기 전이므로 여기서 커넥션을 닫아야 한다.
+    private static void closeAfterFailure(final Connection connection, final Exception cause) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void validateIsolationLevel(final Connection connection, final int isolationLevel) {
+        final int currentIsolationLevel;
+        try {
+            currentIsolationLevel = connection.getTransactionIsolation();
+        } catch (SQLException e) {
+            throw SQLExceptionTranslator.translate(e);
+        }
+        if (currentIsolationLevel != isolationLevel) {
+            throw new IllegalStateException("Participating transaction has isolation level " + currentIsolationLevel
+                    + " but " + isolationLevel + " was requested");
+        }
+    }
+
+    private <T> T doInExistingTransaction(final Connection connection, final TransactionCallback<T> action) {
+        try {
+            return action.doInTransaction(connection);
+        } catch (SQLException e) {
+            throw SQLExceptionTranslator.translate(e);
+        }
+    }
+
+    private void rollback(final Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private void restoreAndClose(final Connection connection, final boolean autoCommit, final int isolationLevel) {
+        try {
+            connection.setAutoCommit(autoCommit);
+            connection.setTransactionIsolation(isolationLevel);
+        } catch (SQLException e) {
+            log.error(e.getMessage(), e);
+        }
+
+        try {
+            connection.close();
+        } catch (SQLException ignored) {}
+    }
+}
@@ -0,0 +1,187 @@
+package transaction.stage1.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import transaction.DatabasePopulatorUtils;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionTemplateTest {
+
+    private static final String INSERT_SQL = "insert into users (account, password, email) values (?, ?, ?)";
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        final var jdbcDataSource = new JdbcDataSource();
+        jdbcDataSource.setUrl("jdbc:h2:mem:transaction-template;DB_CLOSE_DELAY=-1;MODE=MYSQL;");
+        jdbcDataSource.setUser("sa");
+        jdbcDataSource.setPassword("");
+        this.dataSource = jdbcDataSource;
+        DatabasePopulatorUtils.execute(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(dataSource);
+        jdbcTemplate.update("truncate table users restart identity");
+    }
+
+    @AfterEach
+    void tearDown() {
+        assertThat(TransactionSynchronizationManager.hasResource(dataSource)).isFalse();
+    }
+
+    @Test
+    void bindsConnectionForCallbackAndUnbindsAfterwards() {
+        final var bound = transactionTemplate.execute(connection -> {
+            assertThat(TransactionSynchronizationManager.getResource(dataSource)).isSameAs(connection);
+            assertThat(connection.getAutoCommit()).isFalse();
+            jdbcTemplate.update(INSERT_SQL, "gugu", "password", "hkkang@woowahan.com");
+            return connection;
+        });
+
+        assertThat(TransactionSynchronizationManager.getResource(dataSource)).isNull();
+        assertThatThrownBy(bound::getAutoCommit).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void commitsWhenCallbackCompletes() {
+        transactionTemplate.execute(connection -> jdbcTemplate.update(INSERT_SQL, "gugu", "password", "hkkang@woowahan.com"));
+
+        assertThat(countUsers()).isEqualTo(1);
+    }
+
+    @Test
+    void rollsBackWhenCallbackThrows() {
+        assertThatThrownBy(() -> transactionTemplate.execute(connection -> {
+            jdbcTemplate.update(INSERT_SQL, "gugu", "password", "hkkang@woowahan.com");
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(countUsers()).isZero();
+    }
+
+    @Test
+    void nestedExecuteJoinsOuterTransaction() {
+        assertThatThrownBy(() -> transactionTemplate.execute(Connection.TRANSACTION_SERIALIZABLE, outer -> {
+            transactionTemplate.execute(inner -> {
+                assertThat(inner).isSameAs(outer);
+                return jdbcTemplate.update(INSERT_SQL, "gugu", "password", "hkkang@woowahan.com");
+            });
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(countUsers()).isZero();
+    }
+
+    @Test
+    void rejectsNestedExecuteWithDifferentIsolationLevel() {
+        transactionTemplate.execute(Connection.TRANSACTION_READ_COMMITTED, outer -> {
+            assertThatThrownBy(() -> transactionTemplate.execute(Connection.TRANSACTION_SERIALIZABLE, inner -> null))
+                    .isInstanceOf(IllegalStateException.class);
+            return transactionTemplate.execute(Connection.TRANSACTION_READ_COMMITTED, inner -> null);
+        });
+    }
+
+    @Test
+    void closesConnectionWhenTransactionCannotStart() {
+        final var closed = new AtomicBoolean();
+        final var failing = new FailingAutoCommitDataSource(dataSource, closed);
+
+        assertThatThrownBy(() -> new TransactionTemplate(failing).execute(connection -> null))
+                .isInstanceOf(DataAccessException.class);
+
+        assertThat(closed).isTrue();
+        assertThat(TransactionSynchronizationManager.hasResource(failing)).isFalse();
+    }
+
+    private long countUsers() {
+        final RowMapper<Long> countMapper = rs -> rs.getLong(1);
+        return jdbcTemplate.queryForObject("select count(*) from users", countMapper);
+    }
+
+    // setAutoCommit(false)가 실패하는 커넥션을 반환하고 close 호출 여부를 기록한다.
+    private static class FailingAutoCommitDataSource implements DataSource {
+
+        private final DataSource target;
+        private final AtomicBoolean closed;
+
+        FailingAutoCommitDataSource(final DataSource target, final AtomicBoolean closed) {
+            this.target = target;
+            this.closed = closed;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            final var connection = target.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("setAutoCommit".equals(method.getName())) {
+                            throw new SQLException("setAutoCommit failed");
+                        }
+                        if ("close".equals(method.getName())) {
+                            closed.set(true);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+
+        @Override
+        public Connection getConnection(final String username, final String password) throws SQLException {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return target.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(final PrintWriter out) throws SQLException {
+            target.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(final int seconds) throws SQLException {
+            target.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return target.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            return target.getParentLogger();
+        }
+
+        @Override
+        public <T> T unwrap(final Class<T> iface) throws SQLException {
+            return target.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+            return target.isWrapperFor(iface);
+        }
+    }
+}
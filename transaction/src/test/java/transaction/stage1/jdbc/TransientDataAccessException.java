@@ -0,0 +1,16 @@
+package transaction.stage1.jdbc;
+
+/**
+ * 같은 작업을 다시 시도하면 성공할 수도 있는 예외. (데드락, 직렬화 실패, 락 대기 시간 초과 등)
+ */
+public class TransientDataAccessException extends DataAccessException {
+    private static final long serialVersionUID = 1L;
+
+    public TransientDataAccessException(String message) {
+        super(message);
+    }
+
+    public TransientDataAccessException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,37 @@
+package transaction.stage2;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+
+/**
+ * UserBulkRepositoryTest에서 IDENTITY 전략과 비교하기 위한 엔티티.
+ * insert를 실행해야 id를 알 수 있으므로 hibernate가 insert를 배치로 묶지 못한다.
+ */
+@Entity(name = "identity_users")
+public class IdentityUser {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String account;
+    private String password;
+    private String email;
+
+    protected IdentityUser() {}
+
+    public IdentityUser(String account, String password, String email) {
+        this.account = account;
+        this.password = password;
+        this.email = email;
+    }
+
+    public static IdentityUser createTest() {
+        return new IdentityUser("gugu", "password", "hkkang@woowahan.com");
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
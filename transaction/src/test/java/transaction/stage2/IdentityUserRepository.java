@@ -0,0 +1,6 @@
+package transaction.stage2;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IdentityUserRepository extends JpaRepository<IdentityUser, Long> {
+}
@@ -0,0 +1,97 @@
+package transaction.stage2;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource를 감싸서 insert 문을 하나씩 실행한 횟수(executeUpdate)와 배치로 실행한 횟수(executeBatch)를 센다.
+ */
+class InsertStatementCounter implements BeanPostProcessor {
+
+    private final AtomicInteger singleInserts = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger batchedRows = new AtomicInteger();
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        return new DelegatingDataSource((DataSource) bean) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return wrap(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(final String username, final String password) throws SQLException {
+                return wrap(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private Connection wrap(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    final var result = invoke(connection, method, args);
+                    if ("prepareStatement".equals(method.getName()) && isInsert(args[0])) {
+                        return wrap((PreparedStatement) result);
+                    }
+                    return result;
+                });
+    }
+
+    private PreparedStatement wrap(final PreparedStatement pstmt) {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    final var result = invoke(pstmt, method, args);
+                    if ("executeUpdate".equals(method.getName())) {
+                        singleInserts.incrementAndGet();
+                    } else if ("executeBatch".equals(method.getName())) {
+                        batches.incrementAndGet();
+                        batchedRows.addAndGet(((int[]) result).length);
+                    }
+                    return result;
+                });
+    }
+
+    private static boolean isInsert(final Object sql) {
+        return sql instanceof String && ((String) sql).stripLeading().toLowerCase(Locale.ROOT).startsWith("insert");
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    void reset() {
+        singleInserts.set(0);
+        batches.set(0);
+        batchedRows.set(0);
+    }
+
+    int getSingleInserts() {
+        return singleInserts.get();
+    }
+
+    int getBatches() {
+        return batches.get();
+    }
+
+    int getBatchedRows() {
+        return batchedRows.get();
+    }
+}
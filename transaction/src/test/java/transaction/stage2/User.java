@@ -4,12 +4,16 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 
 @Entity(name = "users")
 public class User {
 
+    // IDENTITY는 insert를 실행해야 id를 알 수 있어서 hibernate가 insert를 배치로 묶지 못한다.
+    // 시퀀스에서 allocationSize만큼 id를 미리 받아오는 pooled 방식을 사용한다.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     private String account;
     private String password;
@@ -0,0 +1,11 @@
+package transaction.stage2;
+
+public interface UserBulkRepository {
+
+    /**
+     * batchSize마다 flush, clear를 반복하며 저장한다.
+     * hibernate.jdbc.batch_size와 같은 값을 사용하면 flush 한 번에 insert 배치 하나가 실행된다.
+     * id가 없는 user는 persist, 이미 저장된 user는 merge 한다.
+     */
+    int saveAllBatched(Iterable<User> users, int batchSize);
+}
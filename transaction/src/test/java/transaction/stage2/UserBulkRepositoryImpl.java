@@ -0,0 +1,47 @@
+package transaction.stage2;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class UserBulkRepositoryImpl implements UserBulkRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(UserBulkRepositoryImpl.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int saveAllBatched(final Iterable<User> users, final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive : " + batchSize);
+        }
+        var count = 0;
+        for (final var user : users) {
+            save(user);
+            count++;
+            // 영속성 컨텍스트에 엔티티가 계속 쌓이지 않도록 주기적으로 비운다.
+            if (count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        log.debug("Saved {} users with batch size {}", count, batchSize);
+        return count;
+    }
+
+    // id가 있는 user는 이미 저장된(detached) 엔티티이므로 SimpleJpaRepository.save()처럼 merge 한다.
+    private void save(final User user) {
+        if (user.getId() == null) {
+            entityManager.persist(user);
+            return;
+        }
+        entityManager.merge(user);
+    }
+}
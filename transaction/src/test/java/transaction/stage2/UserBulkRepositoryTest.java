@@ -0,0 +1,94 @@
+package transaction.stage2;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IDENTITY 전략으로 엔티티마다 save()를 호출할 때와 saveAllBatched()로 저장할 때 db에 insert를 몇 번 보내는지 비교해보자.
+ * 실행 시간은 show-sql, 로컬 환경에 따라 달라지므로 insert 실행 횟수와 배치 횟수로 확인한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserBulkRepositoryTest {
+
+    private static final int USERS = 500;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IdentityUserRepository identityUserRepository;
+
+    @Autowired
+    private InsertStatementCounter insertStatementCounter;
+
+    @BeforeEach
+    void setUp() {
+        insertStatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+        identityUserRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void perEntitySaveWithIdentityInsertsOneRowAtATime() {
+        IntStream.range(0, USERS)
+                .mapToObj(i -> IdentityUser.createTest())
+                .forEach(identityUserRepository::save);
+
+        assertThat(insertStatementCounter.getSingleInserts()).isEqualTo(USERS);
+        assertThat(insertStatementCounter.getBatches()).isZero();
+    }
+
+    @Test
+    void saveAllBatchedSendsOneBatchPerBatchSize() {
+        final var saved = userRepository.saveAllBatched(createUsers(), BATCH_SIZE);
+
+        assertThat(saved).isEqualTo(USERS);
+        assertThat(insertStatementCounter.getSingleInserts()).isZero();
+        assertThat(insertStatementCounter.getBatches()).isEqualTo(USERS / BATCH_SIZE);
+        assertThat(insertStatementCounter.getBatchedRows()).isEqualTo(USERS);
+        assertThat(userRepository.count()).isEqualTo(USERS);
+    }
+
+    @Test
+    void saveAllBatchedMergesDetachedUsers() {
+        final var detached = userRepository.save(User.createTest());
+        detached.changePassword("changed");
+
+        userRepository.saveAllBatched(List.of(detached), BATCH_SIZE);
+
+        assertThat(userRepository.count()).isEqualTo(1);
+        assertThat(userRepository.findById(detached.getId()))
+                .hasValueSatisfying(user -> assertThat(user.getPassword()).isEqualTo("changed"));
+    }
+
+    private static List<User> createUsers() {
+        return IntStream.range(0, USERS)
+                .mapToObj(i -> User.createTest())
+                .collect(Collectors.toList());
+    }
+
+    @TestConfiguration
+    static class InsertStatementCounterConfig {
+
+        @Bean
+        static InsertStatementCounter insertStatementCounter() {
+            return new InsertStatementCounter();
+        }
+    }
+}
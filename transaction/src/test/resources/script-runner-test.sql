@@ -0,0 +1,9 @@
+create table if not exists script_runner_test (id bigint primary key, name varchar(100));
+insert into script_runner_test values (1, 'gugu');
+insert into script_runner_test values (2, 'hkkang');
+select count(*) from script_runner_test;
+set @seed = 3;
+insert into script_runner_test values (@seed, 'brown');
+update script_runner_test set name = 'pobi' where id = 1;
+call 1;
+delete from script_runner_test where id = 2;